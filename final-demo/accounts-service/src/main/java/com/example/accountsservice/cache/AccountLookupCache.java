@@ -0,0 +1,97 @@
+package com.example.accountsservice.cache;
+
+import com.example.accountsservice.entity.Account;
+import com.example.accountsservice.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache in front of {@link AccountRepository#findByCustomerEmail}.
+ *
+ * Keys are the email exactly as given, matching the case-sensitive
+ * customer_email lookups of the debit paths. Unknown emails are cached as empty
+ * entries on a much shorter TTL, so repeated lookups for unregistered
+ * customers do not each cost a query. Caffeine's W-TinyLFU eviction keeps
+ * the few customers that dominate an order spike resident.
+ *
+ * Cached accounts are shared between requests and must not be modified;
+ * debit paths read from the repository and evict here after commit.
+ */
+@Component
+public class AccountLookupCache {
+
+    private final LoadingCache<String, Optional<Account>> cache;
+
+    public AccountLookupCache(AccountRepository accountRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${accounts.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${accounts.cache.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${accounts.cache.negative-ttl-seconds:5}") long negativeTtlSeconds) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Optional<Account>>() {
+                    @Override
+                    public long expireAfterCreate(String email, Optional<Account> account, long currentTime) {
+                        return account.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String email, Optional<Account> account,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(email, account, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String email, Optional<Account> account,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(accountRepository::findByCustomerEmail);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accounts.lookup");
+    }
+
+    public Optional<Account> find(String email) {
+        return cache.get(email);
+    }
+
+    /**
+     * Evicts the given emails once the current transaction commits (or
+     * immediately outside a transaction), so no reader can re-cache a
+     * balance that is about to be rolled back.
+     */
+    public void evictAfterCommit(Collection<String> emails) {
+        List<String> keys = emails.stream().distinct().toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(keys);
+                }
+            });
+        } else {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    public void evictAfterCommit(String email) {
+        evictAfterCommit(List.of(email));
+    }
+}
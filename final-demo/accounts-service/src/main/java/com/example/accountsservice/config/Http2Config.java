@@ -0,0 +1,32 @@
+package com.example.accountsservice.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Raises Tomcat's per-connection HTTP/2 limits for order-service's h2c
+ * client (accounts.client.http2=true), which sends all of its requests
+ * over one connection. Tomcat's defaults allow 100 open streams and run
+ * only 20 of them at a time; the client fails requests beyond the first
+ * limit instead of waiting.
+ */
+@Configuration
+public class Http2Config {
+
+    @Bean
+    public TomcatConnectorCustomizer http2StreamLimits(
+            @Value("${accounts.http2.max-concurrent-streams:256}") int maxConcurrentStreams) {
+        return connector -> {
+            for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution(maxConcurrentStreams);
+                }
+            }
+        };
+    }
+}
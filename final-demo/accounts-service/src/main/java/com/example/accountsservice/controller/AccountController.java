@@ -1,14 +1,20 @@
 package com.example.accountsservice.controller;
 
 import com.example.accountsservice.dto.BalanceResponse;
+import com.example.accountsservice.dto.BatchCheckRequest;
+import com.example.accountsservice.dto.BatchDebitRequest;
+import com.example.accountsservice.dto.BatchResponse;
 import com.example.accountsservice.dto.DebitRequest;
 import com.example.accountsservice.dto.DebitResponse;
+import com.example.accountsservice.dto.ReserveRequest;
+import com.example.accountsservice.dto.StatementResponse;
 import com.example.accountsservice.entity.Account;
 import com.example.accountsservice.service.AccountService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -31,9 +37,26 @@ public class AccountController {
         return accountService.getAccountByEmail(email);
     }
 
+    @PostMapping("/check:batch")
+    public BatchResponse checkBalances(@Valid @RequestBody BatchCheckRequest request) {
+        return accountService.checkBalances(request.getItems());
+    }
+
+    @PostMapping("/debit:batch")
+    public BatchResponse debitAll(@Valid @RequestBody BatchDebitRequest request) {
+        return accountService.debitAll(request.getItems());
+    }
+
+    @GetMapping("/{email}/transactions")
+    public StatementResponse getStatement(@PathVariable String email,
+                                          @RequestParam(required = false) Long beforeId,
+                                          @RequestParam(defaultValue = "50") int limit) {
+        return accountService.getStatement(email, beforeId, limit);
+    }
+
     @GetMapping("/{email}/check")
     public BalanceResponse checkBalance(@PathVariable String email,
-                                        @RequestParam double amount) {
+                                        @RequestParam BigDecimal amount) {
         return accountService.checkBalance(email, amount);
     }
 
@@ -43,4 +66,11 @@ public class AccountController {
         DebitResponse response = accountService.debit(email, request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/{email}/reserve")
+    public ResponseEntity<DebitResponse> reserve(@PathVariable String email,
+                                                  @Valid @RequestBody ReserveRequest request) {
+        DebitResponse response = accountService.reserve(email, request);
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.accountsservice.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class BalanceCheckItem {
+    @NotBlank
+    private String email;
+
+    @NotNull
+    @Positive
+    @Digits(integer = 17, fraction = 2)
+    private BigDecimal amount;
+}
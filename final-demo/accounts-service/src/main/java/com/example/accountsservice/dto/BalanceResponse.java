@@ -1,5 +1,6 @@
 package com.example.accountsservice.dto;
 
+import com.example.accountsservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -8,6 +9,6 @@ import lombok.Data;
 public class BalanceResponse {
     private String email;
     private String customerName;
-    private Double balance;
+    private Money balance;
     private boolean sufficient;
 }
@@ -0,0 +1,16 @@
+package com.example.accountsservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchDebitRequest {
+    @NotEmpty
+    @Size(max = 5000)
+    @Valid
+    private List<DebitRequest> items;
+}
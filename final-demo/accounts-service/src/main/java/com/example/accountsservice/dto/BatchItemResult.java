@@ -0,0 +1,26 @@
+package com.example.accountsservice.dto;
+
+import com.example.accountsservice.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchItemResult {
+
+    public static final String SUFFICIENT = "SUFFICIENT";
+    public static final String DEBITED = "DEBITED";
+    public static final String INSUFFICIENT_BALANCE = "INSUFFICIENT_BALANCE";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private int index;
+    private String email;
+    private String status;
+    // Current balance for checks, balance after this item for debits; null when not found
+    private Money balance;
+    private Long orderId;
+
+    public boolean isSuccess() {
+        return SUFFICIENT.equals(status) || DEBITED.equals(status);
+    }
+}
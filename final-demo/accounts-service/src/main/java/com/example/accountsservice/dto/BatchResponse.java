@@ -0,0 +1,20 @@
+package com.example.accountsservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> results;
+
+    public static BatchResponse of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::isSuccess).count();
+        return new BatchResponse(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.accountsservice.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class DebitRequest {
     @NotNull
@@ -11,7 +14,8 @@ public class DebitRequest {
 
     @NotNull
     @Positive
-    private Double amount;
+    @Digits(integer = 17, fraction = 2)
+    private BigDecimal amount;
 
     private Long orderId;
 }
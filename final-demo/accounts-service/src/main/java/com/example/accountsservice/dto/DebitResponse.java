@@ -1,5 +1,6 @@
 package com.example.accountsservice.dto;
 
+import com.example.accountsservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -7,7 +8,7 @@ import lombok.Data;
 @AllArgsConstructor
 public class DebitResponse {
     private String email;
-    private Double newBalance;
+    private Money newBalance;
     private Long orderId;
     private boolean success;
 }
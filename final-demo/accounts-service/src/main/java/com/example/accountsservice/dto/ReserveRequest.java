@@ -0,0 +1,22 @@
+package com.example.accountsservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ReserveRequest {
+    @NotBlank
+    private String idempotencyKey;
+
+    @NotNull
+    @Positive
+    @Digits(integer = 17, fraction = 2)
+    private BigDecimal amount;
+
+    private Long orderId;
+}
@@ -0,0 +1,18 @@
+package com.example.accountsservice.dto;
+
+import com.example.accountsservice.entity.AccountTransaction;
+import com.example.accountsservice.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StatementResponse {
+    private String email;
+    private Money balance;
+    private List<AccountTransaction> transactions;
+    // Null on the last page
+    private Long nextBeforeId;
+}
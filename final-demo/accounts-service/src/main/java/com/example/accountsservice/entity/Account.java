@@ -1,5 +1,6 @@
 package com.example.accountsservice.entity;
 
+import com.example.accountsservice.money.Money;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,6 +23,6 @@ public class Account {
     @Column(nullable = false, unique = true)
     private String customerEmail;
 
-    @Column(nullable = false)
-    private Double balance;
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money balance;
 }
@@ -0,0 +1,37 @@
+package com.example.accountsservice.entity;
+
+import com.example.accountsservice.money.Money;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "account_debits")
+@Data
+@NoArgsConstructor
+public class AccountDebit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String customerEmail;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money amount;
+
+    private Long orderId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money newBalance;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
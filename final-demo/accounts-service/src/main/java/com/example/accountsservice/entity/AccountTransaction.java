@@ -0,0 +1,48 @@
+package com.example.accountsservice.entity;
+
+import com.example.accountsservice.money.Money;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per debit, never updated or deleted. Statements are read newest
+ * first with a range scan on (customer_email, id).
+ */
+@Entity
+@Table(name = "account_transactions",
+        indexes = @Index(name = "idx_account_tx_email_id", columnList = "customer_email, id"))
+@Data
+@NoArgsConstructor
+public class AccountTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_email", nullable = false)
+    private String customerEmail;
+
+    private Long orderId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money amount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money balanceAfter;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public static AccountTransaction debit(String email, Money amount, Long orderId, Money balanceAfter) {
+        AccountTransaction tx = new AccountTransaction();
+        tx.setCustomerEmail(email);
+        tx.setAmount(amount);
+        tx.setOrderId(orderId);
+        tx.setBalanceAfter(balanceAfter);
+        tx.setCreatedAt(LocalDateTime.now());
+        return tx;
+    }
+}
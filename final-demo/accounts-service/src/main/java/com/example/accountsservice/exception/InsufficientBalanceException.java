@@ -1,7 +1,16 @@
 package com.example.accountsservice.exception;
 
+import com.example.accountsservice.money.Money;
+
 public class InsufficientBalanceException extends RuntimeException {
     public InsufficientBalanceException(String message) {
         super(message);
     }
+
+    public static InsufficientBalanceException of(String email, Money available, Money required) {
+        return new InsufficientBalanceException(
+                "Insufficient balance for " + email +
+                ". Available: $" + available +
+                ", Required: $" + required);
+    }
 }
@@ -0,0 +1,244 @@
+package com.example.accountsservice.ledger;
+
+import com.example.accountsservice.entity.AccountTransaction;
+import com.example.accountsservice.exception.AccountNotFoundException;
+import com.example.accountsservice.exception.InsufficientBalanceException;
+import com.example.accountsservice.money.Money;
+import com.example.accountsservice.repository.AccountDebitRepository;
+import com.example.accountsservice.repository.AccountRepository;
+import com.example.accountsservice.repository.AccountTransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory balance ledger for hot accounts (accounts.debit.mode=ledger).
+ *
+ * Each account's balance lives in an AtomicLong of minor units, loaded from
+ * H2 on first use. A debit is a compare-and-subtract loop, so concurrent
+ * debits on one account never take a lock and can never drive the balance
+ * below zero. Changed balances, reserve records and journal entries are
+ * written behind to H2 in batches; a crash loses at most the last flush
+ * interval. A batch that fails to write is kept and retried ahead of
+ * anything queued after it, so entries reach H2 in the order they were
+ * accepted.
+ */
+@Component
+@ConditionalOnProperty(name = "accounts.debit.mode", havingValue = "ledger")
+public class BalanceLedger {
+
+    public static final long INSUFFICIENT = Long.MIN_VALUE;
+
+    private final AccountRepository accountRepository;
+    private final AccountDebitRepository accountDebitRepository;
+    private final AccountTransactionRepository accountTransactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, AtomicLong> balances = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Reservation> pendingByKey = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingDebit> journal = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<AccountTransaction> transactions = new ConcurrentLinkedQueue<>();
+
+    // The batch of a failed flush, retried first; only touched under the flush lock
+    private final List<PendingDebit> unflushedEntries = new ArrayList<>();
+    private final List<AccountTransaction> unflushedTransactions = new ArrayList<>();
+
+    @Value("${accounts.ledger.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    public BalanceLedger(AccountRepository accountRepository,
+                         AccountDebitRepository accountDebitRepository,
+                         AccountTransactionRepository accountTransactionRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate) {
+        this.accountRepository = accountRepository;
+        this.accountDebitRepository = accountDebitRepository;
+        this.accountTransactionRepository = accountTransactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public long balanceOf(String email) {
+        return cell(email).get();
+    }
+
+    /**
+     * Atomically subtracts the amount if the balance covers it.
+     * Returns the new balance, or {@link #INSUFFICIENT}.
+     */
+    public long tryDebit(String email, long amountMinor) {
+        AtomicLong cell = cell(email);
+        while (true) {
+            long current = cell.get();
+            if (current < amountMinor) {
+                return INSUFFICIENT;
+            }
+            long updated = current - amountMinor;
+            if (cell.compareAndSet(current, updated)) {
+                dirty.add(email);
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * {@link #tryDebit} plus an ACCOUNT_TRANSACTIONS entry for the next flush.
+     */
+    public long debit(String email, Money amount, Long orderId) {
+        long newBalance = tryDebit(email, amount.minorUnits());
+        if (newBalance != INSUFFICIENT) {
+            transactions.add(AccountTransaction.debit(email, amount, orderId, Money.ofMinor(newBalance)));
+        }
+        return newBalance;
+    }
+
+    /**
+     * Idempotent debit-if-sufficient. The first request for a key applies the
+     * debit; any later one gets that same result back, whether it is still
+     * waiting to be flushed or already stored in ACCOUNT_DEBITS.
+     */
+    public PendingDebit reserve(String idempotencyKey, String email, Money amount, Long orderId) {
+        // Load the balance before taking any lock, so a cold account does not hold up other keys
+        cell(email);
+        while (true) {
+            Reservation reservation = pendingByKey.computeIfAbsent(idempotencyKey, key -> new Reservation());
+            synchronized (reservation) {
+                if (reservation.debit != null) {
+                    return reservation.debit;
+                }
+                if (pendingByKey.get(idempotencyKey) != reservation) {
+                    // Given up by an earlier request for the key - start over with a fresh one
+                    continue;
+                }
+
+                Optional<PendingDebit> flushed = accountDebitRepository.findByIdempotencyKey(idempotencyKey)
+                        .map(PendingDebit::of);
+                if (flushed.isPresent()) {
+                    // Already stored in H2 - no need to keep it in memory
+                    pendingByKey.remove(idempotencyKey, reservation);
+                    return flushed.get();
+                }
+
+                long newBalance = debit(email, amount, orderId);
+                if (newBalance == INSUFFICIENT) {
+                    pendingByKey.remove(idempotencyKey, reservation);
+                    throw InsufficientBalanceException.of(email, Money.ofMinor(balanceOf(email)), amount);
+                }
+                PendingDebit debit = new PendingDebit(idempotencyKey, email, amount, orderId,
+                        Money.ofMinor(newBalance), LocalDateTime.now());
+                journal.add(debit);
+                reservation.debit = debit;
+                return debit;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${accounts.ledger.flush-interval-ms:100}")
+    public synchronized void flush() {
+        flushBatch();
+    }
+
+    /**
+     * Writes everything still queued on shutdown. A flush takes at most
+     * flush-batch-size journal entries and transactions, so this repeats
+     * it until the queues are empty or a flush fails.
+     */
+    @PreDestroy
+    public synchronized void flushAll() {
+        boolean flushed = true;
+        while (flushed && (!dirty.isEmpty() || !journal.isEmpty() || !transactions.isEmpty()
+                || !unflushedEntries.isEmpty() || !unflushedTransactions.isEmpty())) {
+            flushed = flushBatch();
+        }
+    }
+
+    // False if the write failed and the batch was kept for the next flush
+    private boolean flushBatch() {
+        List<Object[]> balanceRows = new ArrayList<>();
+        List<String> emails = new ArrayList<>(dirty);
+        for (String email : emails) {
+            // Clear the flag before reading, so a debit racing with us marks the account again
+            dirty.remove(email);
+            balanceRows.add(new Object[]{Money.ofMinor(balances.get(email).get()).toDecimal(), email});
+        }
+
+        List<PendingDebit> entries = new ArrayList<>(unflushedEntries);
+        unflushedEntries.clear();
+        PendingDebit entry;
+        while (entries.size() < flushBatchSize && (entry = journal.poll()) != null) {
+            entries.add(entry);
+        }
+
+        List<AccountTransaction> txs = new ArrayList<>(unflushedTransactions);
+        unflushedTransactions.clear();
+        AccountTransaction tx;
+        while (txs.size() < flushBatchSize && (tx = transactions.poll()) != null) {
+            txs.add(tx);
+        }
+
+        if (balanceRows.isEmpty() && entries.isEmpty() && txs.isEmpty()) {
+            return true;
+        }
+
+        List<Object[]> debitRows = entries.stream()
+                .map(d -> new Object[]{d.idempotencyKey(), d.email(), d.amount().toDecimal(), d.orderId(),
+                        d.newBalance().toDecimal(), Timestamp.valueOf(d.createdAt())})
+                .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("UPDATE accounts SET balance = ? WHERE customer_email = ?", balanceRows);
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO account_debits (idempotency_key, customer_email, amount, order_id, new_balance, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", debitRows);
+                accountTransactionRepository.appendAll(txs);
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Ledger flush failed, will retry: " + e.getMessage());
+            dirty.addAll(emails);
+            unflushedEntries.addAll(entries);
+            unflushedTransactions.addAll(txs);
+            return false;
+        }
+
+        // Once stored, later requests for the key find it in ACCOUNT_DEBITS
+        entries.forEach(d -> pendingByKey.computeIfPresent(d.idempotencyKey(),
+                (key, reservation) -> reservation.debit == d ? null : reservation));
+        return true;
+    }
+
+    private AtomicLong cell(String email) {
+        AtomicLong cell = balances.get(email);
+        if (cell != null) {
+            return cell;
+        }
+        // Read before touching the map, so the query never runs under a map bin lock;
+        // if another thread loaded it meanwhile, its cell wins and ours is dropped
+        AtomicLong loaded = new AtomicLong(accountRepository.findByCustomerEmail(email)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for email: " + email))
+                .getBalance()
+                .minorUnits());
+        AtomicLong raced = balances.putIfAbsent(email, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    // Requests for one idempotency key queue up on it; the first fills in the debit
+    private static final class Reservation {
+        volatile PendingDebit debit;
+    }
+}
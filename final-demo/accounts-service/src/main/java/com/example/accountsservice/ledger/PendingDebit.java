@@ -0,0 +1,19 @@
+package com.example.accountsservice.ledger;
+
+import com.example.accountsservice.entity.AccountDebit;
+import com.example.accountsservice.money.Money;
+
+import java.time.LocalDateTime;
+
+public record PendingDebit(String idempotencyKey,
+                           String email,
+                           Money amount,
+                           Long orderId,
+                           Money newBalance,
+                           LocalDateTime createdAt) {
+
+    static PendingDebit of(AccountDebit debit) {
+        return new PendingDebit(debit.getIdempotencyKey(), debit.getCustomerEmail(), debit.getAmount(),
+                debit.getOrderId(), debit.getNewBalance(), debit.getCreatedAt());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.accountsservice.repository;
+
+import com.example.accountsservice.entity.AccountDebit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface AccountDebitRepository extends JpaRepository<AccountDebit, Long> {
+    Optional<AccountDebit> findByIdempotencyKey(String idempotencyKey);
+}
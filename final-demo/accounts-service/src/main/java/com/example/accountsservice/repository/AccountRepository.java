@@ -1,10 +1,34 @@
 package com.example.accountsservice.repository;
 
 import com.example.accountsservice.entity.Account;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface AccountRepository extends JpaRepository<Account, Long> {
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountRepositoryCustom {
     Optional<Account> findByCustomerEmail(String customerEmail);
+
+    List<Account> findAllByCustomerEmailIn(Collection<String> customerEmails);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.customerEmail = :email")
+    Optional<Account> findByCustomerEmailForUpdate(@Param("email") String email);
+
+    /**
+     * Debit-if-sufficient as a single statement. Returns 1 when the account
+     * was debited, 0 when it does not exist or the balance is too low.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE accounts SET balance = balance - :amount " +
+                   "WHERE customer_email = :email AND balance >= :amount",
+           nativeQuery = true)
+    int debitIfSufficient(@Param("email") String email, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,18 @@
+package com.example.accountsservice.repository;
+
+import com.example.accountsservice.money.Money;
+
+import java.util.List;
+
+public interface AccountRepositoryCustom {
+
+    /**
+     * Applies {@link AccountRepository#debitIfSufficient} for every debit in
+     * one JDBC batch. The result holds the rows affected per debit, in order:
+     * 1 = debited, 0 = unknown account or insufficient balance.
+     */
+    int[] debitAllIfSufficient(List<BatchDebit> debits);
+
+    record BatchDebit(String email, Money amount) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.accountsservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+    private static final String DEBIT_IF_SUFFICIENT =
+            "UPDATE accounts SET balance = balance - ? WHERE customer_email = ? AND balance >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    AccountRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] debitAllIfSufficient(List<BatchDebit> debits) {
+        List<Object[]> rows = debits.stream()
+                .map(d -> new Object[]{d.amount().toDecimal(), d.email(), d.amount().toDecimal()})
+                .toList();
+        return jdbcTemplate.batchUpdate(DEBIT_IF_SUFFICIENT, rows);
+    }
+}
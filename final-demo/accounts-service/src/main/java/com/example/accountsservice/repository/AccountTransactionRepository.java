@@ -0,0 +1,15 @@
+package com.example.accountsservice.repository;
+
+import com.example.accountsservice.entity.AccountTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AccountTransactionRepository extends JpaRepository<AccountTransaction, Long>,
+        AccountTransactionRepositoryCustom {
+
+    // Served by idx_account_tx_email_id
+    List<AccountTransaction> findByCustomerEmailAndIdLessThanOrderByIdDesc(String customerEmail, Long beforeId,
+                                                                          Pageable pageable);
+}
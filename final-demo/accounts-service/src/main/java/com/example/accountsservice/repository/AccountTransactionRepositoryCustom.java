@@ -0,0 +1,14 @@
+package com.example.accountsservice.repository;
+
+import com.example.accountsservice.entity.AccountTransaction;
+
+import java.util.List;
+
+public interface AccountTransactionRepositoryCustom {
+
+    /**
+     * Inserts the transactions with one JDBC batch. Generated ids are not
+     * written back to the given objects.
+     */
+    void appendAll(List<AccountTransaction> transactions);
+}
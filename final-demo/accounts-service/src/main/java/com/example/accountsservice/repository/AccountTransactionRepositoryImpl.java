@@ -0,0 +1,32 @@
+package com.example.accountsservice.repository;
+
+import com.example.accountsservice.entity.AccountTransaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+class AccountTransactionRepositoryImpl implements AccountTransactionRepositoryCustom {
+
+    private static final String INSERT =
+            "INSERT INTO account_transactions (customer_email, order_id, amount, balance_after, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    AccountTransactionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void appendAll(List<AccountTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = transactions.stream()
+                .map(tx -> new Object[]{tx.getCustomerEmail(), tx.getOrderId(), tx.getAmount().toDecimal(),
+                        tx.getBalanceAfter().toDecimal(), Timestamp.valueOf(tx.getCreatedAt())})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+}
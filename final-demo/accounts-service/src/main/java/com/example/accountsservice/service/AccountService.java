@@ -1,58 +1,300 @@
 package com.example.accountsservice.service;
 
+import com.example.accountsservice.cache.AccountLookupCache;
+import com.example.accountsservice.dto.BalanceCheckItem;
 import com.example.accountsservice.dto.BalanceResponse;
+import com.example.accountsservice.dto.BatchItemResult;
+import com.example.accountsservice.dto.BatchResponse;
 import com.example.accountsservice.dto.DebitRequest;
 import com.example.accountsservice.dto.DebitResponse;
+import com.example.accountsservice.dto.ReserveRequest;
+import com.example.accountsservice.dto.StatementResponse;
 import com.example.accountsservice.entity.Account;
+import com.example.accountsservice.entity.AccountDebit;
+import com.example.accountsservice.entity.AccountTransaction;
 import com.example.accountsservice.exception.AccountNotFoundException;
+import com.example.accountsservice.exception.IdempotencyConflictException;
 import com.example.accountsservice.exception.InsufficientBalanceException;
+import com.example.accountsservice.ledger.BalanceLedger;
+import com.example.accountsservice.ledger.PendingDebit;
+import com.example.accountsservice.money.Money;
+import com.example.accountsservice.repository.AccountDebitRepository;
 import com.example.accountsservice.repository.AccountRepository;
+import com.example.accountsservice.repository.AccountRepositoryCustom.BatchDebit;
+import com.example.accountsservice.repository.AccountTransactionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AccountService {
 
+    private static final int MAX_STATEMENT_SIZE = 500;
+
     private final AccountRepository accountRepository;
+    private final AccountDebitRepository accountDebitRepository;
+    private final AccountTransactionRepository accountTransactionRepository;
+    private final AccountLookupCache accountLookupCache;
+    // Present only with accounts.debit.mode=ledger
+    private final BalanceLedger ledger;
+    // accounts.debit.mode=atomic: debit with one conditional UPDATE, no row read first
+    private final boolean atomicDebit;
 
-    public AccountService(AccountRepository accountRepository) {
+    public AccountService(AccountRepository accountRepository,
+                          AccountDebitRepository accountDebitRepository,
+                          AccountTransactionRepository accountTransactionRepository,
+                          AccountLookupCache accountLookupCache,
+                          ObjectProvider<BalanceLedger> ledger,
+                          @Value("${accounts.debit.mode:jpa}") String debitMode) {
         this.accountRepository = accountRepository;
+        this.accountDebitRepository = accountDebitRepository;
+        this.accountTransactionRepository = accountTransactionRepository;
+        this.accountLookupCache = accountLookupCache;
+        this.ledger = ledger.getIfAvailable();
+        this.atomicDebit = "atomic".equals(debitMode);
     }
 
     public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+        List<Account> accounts = accountRepository.findAll();
+        return ledger != null ? accounts.stream().map(this::withLedgerBalance).toList() : accounts;
     }
 
     public Account getAccountByEmail(String email) {
+        Account account = accountLookupCache.find(email)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for email: " + email));
+        return ledger != null ? withLedgerBalance(account) : account;
+    }
+
+    // Uncached read for the debit paths, which modify or must see the current row
+    private Account loadAccount(String email) {
         return accountRepository.findByCustomerEmail(email)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found for email: " + email));
     }
 
-    public BalanceResponse checkBalance(String email, double amount) {
+    public BalanceResponse checkBalance(String email, BigDecimal amount) {
         Account account = getAccountByEmail(email);
         return new BalanceResponse(
                 account.getCustomerEmail(),
                 account.getCustomerName(),
                 account.getBalance(),
-                account.getBalance() >= amount
+                !account.getBalance().isLessThan(Money.of(amount))
         );
     }
 
+    /**
+     * Checks many (email, amount) pairs against one IN query. Unknown
+     * emails are reported per item instead of failing the batch.
+     */
+    @Transactional(readOnly = true)
+    public BatchResponse checkBalances(List<BalanceCheckItem> items) {
+        Map<String, Account> accounts = findAllByEmail(items.stream().map(BalanceCheckItem::getEmail).toList());
+
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BalanceCheckItem item = items.get(i);
+            Account account = accounts.get(item.getEmail());
+            if (account == null) {
+                results.add(new BatchItemResult(i, item.getEmail(), BatchItemResult.NOT_FOUND, null, null));
+                continue;
+            }
+            Money balance = account.getBalance();
+            String status = balance.isLessThan(Money.of(item.getAmount()))
+                    ? BatchItemResult.INSUFFICIENT_BALANCE
+                    : BatchItemResult.SUFFICIENT;
+            results.add(new BatchItemResult(i, item.getEmail(), status, balance, null));
+        }
+        return BatchResponse.of(results);
+    }
+
+    /**
+     * Applies many debits in one transaction. Each debit succeeds or fails
+     * on its own - an unknown account or a low balance is reported for that
+     * item and the rest of the batch still commits. Items are applied in
+     * request order, so several debits on one account see each other.
+     */
     @Transactional
-    public DebitResponse debit(String email, DebitRequest request) {
+    public BatchResponse debitAll(List<DebitRequest> items) {
+        if (ledger != null) {
+            return debitAllInLedger(items);
+        }
+
+        List<BatchDebit> debits = items.stream()
+                .map(item -> new BatchDebit(item.getEmail(), Money.of(item.getAmount())))
+                .toList();
+        int[] updated = accountRepository.debitAllIfSufficient(debits);
+        accountLookupCache.evictAfterCommit(items.stream().map(DebitRequest::getEmail).toList());
+
+        // Debited rows stay locked until commit, so the balances read now are
+        // exactly the result of this batch
+        Map<String, Account> accounts = findAllByEmail(items.stream().map(DebitRequest::getEmail).toList());
+
+        // Walk backwards from each account's final balance to get the balance after every item
+        Map<String, Long> running = new HashMap<>();
+        accounts.forEach((email, account) -> running.put(email, account.getBalance().minorUnits()));
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        for (int i = items.size() - 1; i >= 0; i--) {
+            DebitRequest item = items.get(i);
+            Long balance = running.get(item.getEmail());
+            String status;
+            if (balance == null) {
+                status = BatchItemResult.NOT_FOUND;
+            } else if (updated[i] > 0) {
+                status = BatchItemResult.DEBITED;
+                running.put(item.getEmail(), Money.addMinor(balance, debits.get(i).amount().minorUnits()));
+            } else {
+                status = BatchItemResult.INSUFFICIENT_BALANCE;
+            }
+            results[i] = new BatchItemResult(i, item.getEmail(), status,
+                    balance != null ? Money.ofMinor(balance) : null, item.getOrderId());
+        }
+
+        List<AccountTransaction> journal = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].isSuccess()) {
+                journal.add(AccountTransaction.debit(items.get(i).getEmail(), debits.get(i).amount(),
+                        items.get(i).getOrderId(), results[i].getBalance()));
+            }
+        }
+        accountTransactionRepository.appendAll(journal);
+        return BatchResponse.of(List.of(results));
+    }
+
+    private BatchResponse debitAllInLedger(List<DebitRequest> items) {
+        Map<String, Account> accounts = findAllByEmail(items.stream().map(DebitRequest::getEmail).toList());
+
+        List<BatchItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            DebitRequest item = items.get(i);
+            if (!accounts.containsKey(item.getEmail())) {
+                results.add(new BatchItemResult(i, item.getEmail(), BatchItemResult.NOT_FOUND, null, item.getOrderId()));
+                continue;
+            }
+            long newBalance = ledger.debit(item.getEmail(), Money.of(item.getAmount()), item.getOrderId());
+            if (newBalance == BalanceLedger.INSUFFICIENT) {
+                results.add(new BatchItemResult(i, item.getEmail(), BatchItemResult.INSUFFICIENT_BALANCE,
+                        Money.ofMinor(ledger.balanceOf(item.getEmail())), item.getOrderId()));
+            } else {
+                results.add(new BatchItemResult(i, item.getEmail(), BatchItemResult.DEBITED,
+                        Money.ofMinor(newBalance), item.getOrderId()));
+            }
+        }
+        return BatchResponse.of(results);
+    }
+
+    private Map<String, Account> findAllByEmail(List<String> emails) {
+        return accountRepository.findAllByCustomerEmailIn(emails.stream().distinct().toList()).stream()
+                .map(account -> ledger != null ? withLedgerBalance(account) : account)
+                .collect(Collectors.toMap(Account::getCustomerEmail, Function.identity()));
+    }
+
+    /**
+     * One page of an account's journal, newest first. Pass the returned
+     * nextBeforeId to get the following page.
+     */
+    @Transactional(readOnly = true)
+    public StatementResponse getStatement(String email, Long beforeId, int limit) {
         Account account = getAccountByEmail(email);
+        int size = Math.min(Math.max(limit, 1), MAX_STATEMENT_SIZE);
+        List<AccountTransaction> transactions = accountTransactionRepository
+                .findByCustomerEmailAndIdLessThanOrderByIdDesc(account.getCustomerEmail(),
+                        beforeId != null ? beforeId : Long.MAX_VALUE, PageRequest.of(0, size));
+        Long nextBeforeId = transactions.size() == size ? transactions.get(size - 1).getId() : null;
+        return new StatementResponse(account.getCustomerEmail(), account.getBalance(), transactions, nextBeforeId);
+    }
 
-        if (account.getBalance() < request.getAmount()) {
-            throw new InsufficientBalanceException(
-                    "Insufficient balance for " + email +
-                    ". Available: $" + String.format("%.2f", account.getBalance()) +
-                    ", Required: $" + String.format("%.2f", request.getAmount()));
+    @Transactional
+    public DebitResponse debit(String email, DebitRequest request) {
+        Money amount = Money.of(request.getAmount());
+        if (ledger != null) {
+            long newBalance = ledger.debit(email, amount, request.getOrderId());
+            if (newBalance == BalanceLedger.INSUFFICIENT) {
+                throw InsufficientBalanceException.of(email, Money.ofMinor(ledger.balanceOf(email)), amount);
+            }
+            return new DebitResponse(email, Money.ofMinor(newBalance), request.getOrderId(), true);
+        }
+        if (atomicDebit) {
+            Account account = debitAtomically(email, amount);
+            journal(account, amount, request.getOrderId());
+            return new DebitResponse(email, account.getBalance(), request.getOrderId(), true);
+        }
+
+        Account account = loadAccount(email);
+
+        if (account.getBalance().isLessThan(amount)) {
+            throw InsufficientBalanceException.of(email, account.getBalance(), amount);
         }
 
-        account.setBalance(account.getBalance() - request.getAmount());
+        account.setBalance(account.getBalance().minus(amount));
         accountRepository.save(account);
+        journal(account, amount, request.getOrderId());
+        accountLookupCache.evictAfterCommit(email);
+
+        return new DebitResponse(
+                account.getCustomerEmail(),
+                account.getBalance(),
+                request.getOrderId(),
+                true
+        );
+    }
+
+    /**
+     * Debit-if-sufficient in one call. The account row is locked for the
+     * check and the update, and the debit is recorded under the caller's
+     * idempotency key: repeating a request with the same key returns the
+     * original result instead of charging again.
+     */
+    @Transactional
+    public DebitResponse reserve(String email, ReserveRequest request) {
+        if (ledger != null) {
+            PendingDebit debit = ledger.reserve(request.getIdempotencyKey(), email,
+                    Money.of(request.getAmount()), request.getOrderId());
+            if (!debit.email().equals(email) || !debit.amount().equals(Money.of(request.getAmount()))) {
+                throw idempotencyConflict(request);
+            }
+            return new DebitResponse(debit.email(), debit.newBalance(), debit.orderId(), true);
+        }
+
+        Optional<AccountDebit> previous = accountDebitRepository.findByIdempotencyKey(request.getIdempotencyKey());
+        if (previous.isPresent()) {
+            return replay(email, request, previous.get());
+        }
+
+        if (atomicDebit) {
+            // A concurrent request with the same key fails on the unique
+            // idempotency_key index and rolls back its debit with it
+            Money amount = Money.of(request.getAmount());
+            Account account = debitAtomically(email, amount);
+            return new DebitResponse(email, recordDebit(request, account).getNewBalance(), request.getOrderId(), true);
+        }
+
+        Account account = accountRepository.findByCustomerEmailForUpdate(email)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for email: " + email));
+
+        // A request with the same key may have committed while we waited for the row lock
+        previous = accountDebitRepository.findByIdempotencyKey(request.getIdempotencyKey());
+        if (previous.isPresent()) {
+            return replay(email, request, previous.get());
+        }
+
+        Money amount = Money.of(request.getAmount());
+        if (account.getBalance().isLessThan(amount)) {
+            throw InsufficientBalanceException.of(email, account.getBalance(), amount);
+        }
+
+        account.setBalance(account.getBalance().minus(amount));
+        recordDebit(request, account);
+        accountLookupCache.evictAfterCommit(email);
 
         return new DebitResponse(
                 account.getCustomerEmail(),
@@ -61,4 +303,59 @@ public class AccountService {
                 true
         );
     }
+
+    /**
+     * Debits with a single UPDATE ... WHERE balance >= amount, so the check
+     * and the write cannot interleave with another debit. Returns the
+     * account as it is after the update.
+     */
+    private Account debitAtomically(String email, Money amount) {
+        if (accountRepository.debitIfSufficient(email, amount.toDecimal()) == 1) {
+            accountLookupCache.evictAfterCommit(email);
+            return loadAccount(email);
+        }
+        // Nothing updated: either the account is unknown or the balance is too low
+        Account account = loadAccount(email);
+        throw InsufficientBalanceException.of(email, account.getBalance(), amount);
+    }
+
+    private AccountDebit recordDebit(ReserveRequest request, Account account) {
+        AccountDebit debit = new AccountDebit();
+        debit.setIdempotencyKey(request.getIdempotencyKey());
+        debit.setCustomerEmail(account.getCustomerEmail());
+        debit.setAmount(Money.of(request.getAmount()));
+        debit.setOrderId(request.getOrderId());
+        debit.setNewBalance(account.getBalance());
+        journal(account, debit.getAmount(), debit.getOrderId());
+        return accountDebitRepository.save(debit);
+    }
+
+    private void journal(Account account, Money amount, Long orderId) {
+        accountTransactionRepository.save(
+                AccountTransaction.debit(account.getCustomerEmail(), amount, orderId, account.getBalance()));
+    }
+
+    private DebitResponse replay(String email, ReserveRequest request, AccountDebit previous) {
+        if (!previous.getCustomerEmail().equals(email)
+                || !previous.getAmount().equals(Money.of(request.getAmount()))) {
+            throw idempotencyConflict(request);
+        }
+        return new DebitResponse(
+                previous.getCustomerEmail(),
+                previous.getNewBalance(),
+                previous.getOrderId(),
+                true
+        );
+    }
+
+    private IdempotencyConflictException idempotencyConflict(ReserveRequest request) {
+        return new IdempotencyConflictException(
+                "Idempotency key " + request.getIdempotencyKey() +
+                " was already used for a different debit");
+    }
+
+    private Account withLedgerBalance(Account account) {
+        return new Account(account.getId(), account.getCustomerName(), account.getCustomerEmail(),
+                Money.ofMinor(ledger.balanceOf(account.getCustomerEmail())));
+    }
 }
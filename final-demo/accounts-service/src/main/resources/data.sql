@@ -1,3 +1,7 @@
+-- Balance snapshots were never read (ACCOUNTS holds the balance); drop the
+-- table from databases created while they were written
+DROP TABLE IF EXISTS account_balance_snapshots;
+
 MERGE INTO accounts (id, customer_name, customer_email, balance) KEY (customer_email) VALUES
 (1, 'John Doe', 'john@example.com', 500.00);
 
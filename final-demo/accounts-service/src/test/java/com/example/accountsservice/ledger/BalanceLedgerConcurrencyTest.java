@@ -0,0 +1,160 @@
+package com.example.accountsservice.ledger;
+
+import com.example.accountsservice.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 64 threads debiting one account at once through the ledger, with the
+ * write-behind flush running alongside them. Prints the throughput of each
+ * concurrent run.
+ */
+@SpringBootTest(properties = {
+        "accounts.debit.mode=ledger",
+        "spring.datasource.url=jdbc:h2:mem:ledger-concurrency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class BalanceLedgerConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private BalanceLedger ledger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        // 500.00 covers 7142 debits of 0.07; 64 x 200 attempts ask for 12800
+        String email = "john@example.com";
+        long startMinor = ledger.balanceOf(email);
+        Money amount = Money.of(new BigDecimal("0.07"));
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger negative = new AtomicInteger();
+
+        runConcurrently("debit", THREADS * 200, () -> {
+            for (int i = 0; i < 200; i++) {
+                long newBalance = ledger.debit(email, amount, null);
+                if (newBalance == BalanceLedger.INSUFFICIENT) {
+                    continue;
+                }
+                succeeded.incrementAndGet();
+                if (newBalance < 0) {
+                    negative.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        long endMinor = ledger.balanceOf(email);
+        assertThat(negative.get()).isZero();
+        assertThat(succeeded.get()).isEqualTo((int) (startMinor / amount.minorUnits()));
+        assertThat(endMinor).isEqualTo(startMinor - succeeded.get() * amount.minorUnits());
+        assertThat(endMinor).isBetween(0L, amount.minorUnits() - 1);
+
+        ledger.flushAll();
+        assertThat(storedBalance(email)).isEqualByComparingTo(Money.ofMinor(endMinor).toDecimal());
+        assertThat(transactionCount(email)).isEqualTo(succeeded.get());
+    }
+
+    @Test
+    void concurrentReservesWithOneKeyDebitOnce() throws Exception {
+        String email = "jane@example.com";
+        long startMinor = ledger.balanceOf(email);
+        Money amount = Money.of(new BigDecimal("12.34"));
+        Set<Money> newBalances = ConcurrentHashMap.newKeySet();
+
+        runConcurrently("reserve (one key)", THREADS * 50, () -> {
+            for (int i = 0; i < 50; i++) {
+                newBalances.add(ledger.reserve("order-42", email, amount, 42L).newBalance());
+                if (i == 25) {
+                    // Later requests must find the key in ACCOUNT_DEBITS instead
+                    ledger.flush();
+                }
+            }
+            return null;
+        });
+
+        assertThat(newBalances).containsExactly(Money.ofMinor(startMinor - amount.minorUnits()));
+        assertThat(ledger.balanceOf(email)).isEqualTo(startMinor - amount.minorUnits());
+
+        ledger.flushAll();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_debits WHERE idempotency_key = 'order-42'", Integer.class)).isEqualTo(1);
+        assertThat(storedBalance(email)).isEqualByComparingTo(Money.ofMinor(startMinor - amount.minorUnits()).toDecimal());
+    }
+
+    @Test
+    void failedFlushIsRetriedInOrder() {
+        // More entries than one flush takes (flush-batch-size=1000), so some stay queued behind the failed batch
+        String email = "bob@example.com";
+        Money amount = Money.of(new BigDecimal("0.01"));
+        jdbcTemplate.execute("ALTER TABLE account_transactions RENAME TO account_transactions_offline");
+        try {
+            for (int i = 0; i < 1500; i++) {
+                assertThat(ledger.debit(email, amount, (long) i)).isNotEqualTo(BalanceLedger.INSUFFICIENT);
+            }
+            ledger.flush();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE account_transactions_offline RENAME TO account_transactions");
+        }
+        ledger.debit(email, amount, 1500L);
+        ledger.flushAll();
+
+        List<Long> orderIds = jdbcTemplate.queryForList(
+                "SELECT order_id FROM account_transactions WHERE customer_email = ? ORDER BY id", Long.class, email);
+        assertThat(orderIds).hasSize(1501).isSorted();
+        assertThat(storedBalance(email)).isEqualByComparingTo(Money.ofMinor(ledger.balanceOf(email)).toDecimal());
+    }
+
+    private static void runConcurrently(String operation, int operations, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%-18s %d threads, %d ops in %.3f s: %.0f ops/sec%n",
+                    operation, THREADS, operations, seconds, operations / seconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BigDecimal storedBalance(String email) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE customer_email = ?",
+                BigDecimal.class, email);
+    }
+
+    private int transactionCount(String email) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account_transactions WHERE customer_email = ?",
+                Integer.class, email);
+    }
+}
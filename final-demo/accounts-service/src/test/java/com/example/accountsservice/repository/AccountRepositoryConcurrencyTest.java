@@ -0,0 +1,136 @@
+package com.example.accountsservice.repository;
+
+import com.example.accountsservice.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 64 threads debiting one account at once with the conditional UPDATE,
+ * one statement per debit and in JDBC batches, while another thread
+ * watches the stored balance.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:repository-concurrency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class AccountRepositoryConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        // 100.00 covers exactly 400 debits of 0.25; 64 x 20 attempts ask for 1280
+        String email = "john@example.com";
+        BigDecimal start = setBalance(email, "100.00");
+        BigDecimal amount = new BigDecimal("0.25");
+        AtomicInteger debited = new AtomicInteger();
+
+        boolean overdrawn = runConcurrently(email, () -> {
+            for (int i = 0; i < 20; i++) {
+                Integer rows = transactionTemplate.execute(status -> accountRepository.debitIfSufficient(email, amount));
+                debited.addAndGet(rows);
+            }
+            return null;
+        });
+
+        assertThat(overdrawn).isFalse();
+        assertThat(amount.multiply(BigDecimal.valueOf(debited.get()))).isEqualByComparingTo(start);
+        assertThat(storedBalance(email)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void concurrentBatchDebitsNeverOverdraw() throws Exception {
+        // 100.00 covers exactly 400 debits of 0.25; 64 x 4 batches of 5 ask for 1280
+        String email = "jane@example.com";
+        BigDecimal start = setBalance(email, "100.00");
+        Money amount = Money.of(new BigDecimal("0.25"));
+        List<AccountRepositoryCustom.BatchDebit> batch =
+                Collections.nCopies(5, new AccountRepositoryCustom.BatchDebit(email, amount));
+        AtomicInteger debited = new AtomicInteger();
+
+        boolean overdrawn = runConcurrently(email, () -> {
+            for (int i = 0; i < 4; i++) {
+                int[] rows = transactionTemplate.execute(status -> accountRepository.debitAllIfSufficient(batch));
+                for (int row : rows) {
+                    assertThat(row).isBetween(0, 1);
+                    debited.addAndGet(row);
+                }
+            }
+            return null;
+        });
+
+        assertThat(overdrawn).isFalse();
+        assertThat(amount.toDecimal().multiply(BigDecimal.valueOf(debited.get()))).isEqualByComparingTo(start);
+        assertThat(storedBalance(email)).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    // Runs task on THREADS threads at once; true if the balance was ever seen below zero meanwhile
+    private boolean runConcurrently(String email, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean overdrawn = new AtomicBoolean();
+        try {
+            Future<?> watcher = executor.submit(() -> {
+                while (!done.get()) {
+                    if (storedBalance(email).signum() < 0) {
+                        overdrawn.set(true);
+                    }
+                }
+            });
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            done.set(true);
+            watcher.get();
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+        return overdrawn.get();
+    }
+
+    private BigDecimal setBalance(String email, String balance) {
+        jdbcTemplate.update("UPDATE accounts SET balance = ? WHERE customer_email = ?", new BigDecimal(balance), email);
+        return storedBalance(email);
+    }
+
+    private BigDecimal storedBalance(String email) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE customer_email = ?",
+                BigDecimal.class, email);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.analyticsservice.aggregate;
+
+import com.example.analyticsservice.dto.OrderSummaryDto;
+import com.example.analyticsservice.dto.TopProductDto;
+import com.example.analyticsservice.event.OrderEvent;
+import com.example.analyticsservice.money.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory running totals behind the summary and top-products endpoints.
+ *
+ * Holds the same numbers as V_DAILY_ORDER_SUMMARY (per day) and
+ * V_PRODUCT_PERFORMANCE (per product name) as counters that
+ * {@link com.example.analyticsservice.loader.StarSchemaBatchLoader} bumps
+ * after each chunk it writes, so the dashboard reads them without a
+ * warehouse scan. Top products are picked from the per-product totals with
+ * a bounded heap on each read.
+ *
+ * Counters drift when Kafka redelivers events (the views count distinct
+ * order ids, the counters count events). {@link #reconcile} replaces them
+ * with a fresh aggregation from the warehouse; until the first reconcile
+ * succeeds they only cover events seen since startup, and {@link #isReady}
+ * is false.
+ */
+@Component
+public class OrderAggregates {
+
+    public static final int TOP_PRODUCTS = 10;
+
+    private static final Comparator<ProductTotals> BY_REVENUE =
+            Comparator.comparingLong((ProductTotals p) -> p.revenueMinor.sum())
+                    .thenComparing((ProductTotals p) -> p.name, Comparator.reverseOrder());
+
+    private final JdbcTemplate snowflakeJdbcTemplate;
+    private final boolean enabled;
+    private final boolean logOnly;
+
+    private volatile State state = new State();
+    private volatile boolean reconciled;
+
+    public OrderAggregates(JdbcTemplate snowflakeJdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${analytics.aggregates.enabled:true}") boolean enabled,
+                           @Value("${snowflake.fallback.log-only:false}") boolean logOnly) {
+        this.snowflakeJdbcTemplate = snowflakeJdbcTemplate;
+        this.enabled = enabled;
+        this.logOnly = logOnly;
+
+        Gauge.builder("analytics.aggregates.size", this, aggregates -> aggregates.state.days.size())
+                .tag("aggregate", "day")
+                .register(meterRegistry);
+        Gauge.builder("analytics.aggregates.size", this, aggregates -> aggregates.state.products.size())
+                .tag("aggregate", "product")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * True once the counters can answer the dashboard: after the first
+     * successful reconcile, or straight away in log-only mode where there is
+     * no warehouse to read.
+     */
+    public boolean isReady() {
+        return enabled && (reconciled || logOnly);
+    }
+
+    /** Adds events that have just been written to the star schema. */
+    public void add(List<OrderEvent> orderEvents) {
+        if (!enabled) {
+            return;
+        }
+        State current = state;
+        Set<String> productsInOrder = new HashSet<>();
+        for (OrderEvent orderEvent : orderEvents) {
+            if (orderEvent.items().isEmpty()) {
+                continue; // no fact rows, so the views do not count it either
+            }
+            LocalDateTime orderDate = orderEvent.orderDate() != null ? orderEvent.orderDate() : LocalDateTime.now();
+            DayTotals day = current.days.computeIfAbsent(orderDate.toLocalDate().toString(), k -> new DayTotals());
+            day.orders.increment();
+
+            productsInOrder.clear();
+            for (OrderEvent.Item item : orderEvent.items()) {
+                long lineTotal = item.lineTotal().minorUnits();
+                day.revenueMinor.add(lineTotal);
+                day.items.add(item.quantity());
+
+                ProductTotals product = current.products.computeIfAbsent(item.productName(), ProductTotals::new);
+                if (productsInOrder.add(item.productName())) {
+                    product.orders.increment();
+                }
+                product.units.add(item.quantity());
+                product.revenueMinor.add(lineTotal);
+                product.unitPriceMinor.add(item.unitPrice().minorUnits());
+                product.lines.increment();
+            }
+        }
+    }
+
+    /** Same rows as V_DAILY_ORDER_SUMMARY, newest day first. */
+    public List<OrderSummaryDto> getDailySummary() {
+        List<OrderSummaryDto> summary = new ArrayList<>();
+        state.days.forEach((day, totals) -> {
+            long orders = totals.orders.sum();
+            long revenue = totals.revenueMinor.sum();
+            summary.add(new OrderSummaryDto(day, (int) orders, Money.ofMinor(revenue),
+                    Money.ofMinor(average(revenue, orders)), (int) totals.items.sum()));
+        });
+        return summary;
+    }
+
+    /** Same rows as V_PRODUCT_PERFORMANCE, the {@link #TOP_PRODUCTS} highest by revenue. */
+    public List<TopProductDto> getTopProducts() {
+        PriorityQueue<ProductTotals> top = new PriorityQueue<>(TOP_PRODUCTS + 1, BY_REVENUE);
+        for (ProductTotals product : state.products.values()) {
+            top.add(product);
+            if (top.size() > TOP_PRODUCTS) {
+                top.poll();
+            }
+        }
+
+        TopProductDto[] result = new TopProductDto[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            ProductTotals product = top.poll();
+            result[i] = new TopProductDto(product.name, (int) product.orders.sum(), (int) product.units.sum(),
+                    Money.ofMinor(product.revenueMinor.sum()),
+                    Money.ofMinor(average(product.unitPriceMinor.sum(), product.lines.sum())));
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Rebuilds the counters from the warehouse and swaps them in. The caller
+     * must hold off concurrent {@link #add} calls, otherwise events written
+     * while the queries run are either lost or counted twice.
+     */
+    public void reconcile() {
+        if (!enabled || logOnly) {
+            return;
+        }
+        State fresh = new State();
+        snowflakeJdbcTemplate.query(
+                "SELECT ORDER_DAY, TOTAL_ORDERS, TOTAL_REVENUE, TOTAL_ITEMS FROM V_DAILY_ORDER_SUMMARY",
+                rs -> {
+                    DayTotals day = new DayTotals();
+                    day.orders.add(rs.getLong(2));
+                    day.revenueMinor.add(minor(rs.getBigDecimal(3)));
+                    day.items.add(rs.getLong(4));
+                    fresh.days.put(rs.getDate(1).toLocalDate().toString(), day);
+                });
+        // The view only exposes AVG(UNIT_PRICE); keep its sum and count so new lines can be averaged in
+        snowflakeJdbcTemplate.query(
+                "SELECT p.PRODUCT_NAME, COUNT(DISTINCT f.ORDER_ID), SUM(f.QUANTITY), SUM(f.LINE_TOTAL), " +
+                "SUM(f.UNIT_PRICE), COUNT(*) " +
+                "FROM FACT_ORDER_ITEMS f JOIN DIM_PRODUCT p ON f.PRODUCT_KEY = p.PRODUCT_KEY " +
+                "GROUP BY p.PRODUCT_NAME",
+                rs -> {
+                    ProductTotals product = new ProductTotals(rs.getString(1));
+                    product.orders.add(rs.getLong(2));
+                    product.units.add(rs.getLong(3));
+                    product.revenueMinor.add(minor(rs.getBigDecimal(4)));
+                    product.unitPriceMinor.add(minor(rs.getBigDecimal(5)));
+                    product.lines.add(rs.getLong(6));
+                    fresh.products.put(product.name, product);
+                });
+
+        state = fresh;
+        reconciled = true;
+        System.out.println("Order aggregates reconciled: " + fresh.days.size() + " days, " +
+                fresh.products.size() + " products");
+    }
+
+    // ROUND(sum / count, 2) as the views compute it, in minor units
+    private static long average(long sumMinor, long count) {
+        if (count == 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(sumMinor).divide(BigDecimal.valueOf(count), 0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static long minor(BigDecimal amount) {
+        return amount != null ? Money.toMinor(amount) : 0;
+    }
+
+    private static final class State {
+        final Map<String, DayTotals> days = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+        final Map<String, ProductTotals> products = new ConcurrentHashMap<>();
+    }
+
+    private static final class DayTotals {
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueMinor = new LongAdder();
+        final LongAdder items = new LongAdder();
+    }
+
+    private static final class ProductTotals {
+        final String name;
+        final LongAdder orders = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final LongAdder revenueMinor = new LongAdder();
+        final LongAdder unitPriceMinor = new LongAdder();   // with lines, for AVG(UNIT_PRICE)
+        final LongAdder lines = new LongAdder();
+
+        ProductTotals(String name) {
+            this.name = name;
+        }
+    }
+}
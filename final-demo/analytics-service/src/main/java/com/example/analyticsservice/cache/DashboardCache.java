@@ -0,0 +1,97 @@
+package com.example.analyticsservice.cache;
+
+import com.example.analyticsservice.dto.OrderSummaryDto;
+import com.example.analyticsservice.dto.RecentOrderDto;
+import com.example.analyticsservice.dto.TopProductDto;
+import com.example.analyticsservice.service.AnalyticsService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for the dashboard queries, one entry per endpoint.
+ *
+ * Concurrent requests for a missing entry share one warehouse query. Once
+ * an entry is older than its refresh interval, or new events have been
+ * loaded ({@link #markStale}), the next request gets the cached result
+ * and triggers a single background reload. Entries older than
+ * analytics.dashboard.max-stale-seconds are dropped and loaded in the
+ * foreground again.
+ */
+@Component
+public class DashboardCache {
+
+    private final Entry<List<OrderSummaryDto>> summary;
+    private final Entry<List<TopProductDto>> topProducts;
+    private final Entry<List<RecentOrderDto>> recentOrders;
+
+    public DashboardCache(AnalyticsService analyticsService,
+                          MeterRegistry meterRegistry,
+                          @Value("${analytics.dashboard.summary.refresh-seconds:60}") long summaryRefresh,
+                          @Value("${analytics.dashboard.top-products.refresh-seconds:60}") long topProductsRefresh,
+                          @Value("${analytics.dashboard.recent-orders.refresh-seconds:15}") long recentOrdersRefresh,
+                          @Value("${analytics.dashboard.max-stale-seconds:900}") long maxStale) {
+        this.summary = new Entry<>("summary", analyticsService::getDailySummary,
+                summaryRefresh, maxStale, meterRegistry);
+        this.topProducts = new Entry<>("top-products", analyticsService::getTopProducts,
+                topProductsRefresh, maxStale, meterRegistry);
+        this.recentOrders = new Entry<>("recent-orders", analyticsService::getRecentOrders,
+                recentOrdersRefresh, maxStale, meterRegistry);
+    }
+
+    public List<OrderSummaryDto> getDailySummary() {
+        return summary.get();
+    }
+
+    public List<TopProductDto> getTopProducts() {
+        return topProducts.get();
+    }
+
+    public List<RecentOrderDto> getRecentOrders() {
+        return recentOrders.get();
+    }
+
+    /** Called after new order events are written to the star schema. */
+    public void markStale() {
+        summary.markStale();
+        topProducts.markStale();
+        recentOrders.markStale();
+    }
+
+    private static final class Entry<T> {
+
+        private static final String KEY = "all";
+
+        private final LoadingCache<String, T> cache;
+        private final AtomicBoolean stale = new AtomicBoolean();
+
+        Entry(String name, Supplier<T> query, long refreshSeconds, long maxStaleSeconds, MeterRegistry meterRegistry) {
+            this.cache = Caffeine.newBuilder()
+                    .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                    .expireAfterWrite(Duration.ofSeconds(Math.max(maxStaleSeconds, refreshSeconds)))
+                    .recordStats()
+                    .build(key -> query.get());
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "analytics.dashboard." + name);
+        }
+
+        T get() {
+            // One background reload per batch of ingested events, however many readers see the flag
+            if (stale.compareAndSet(true, false) && cache.getIfPresent(KEY) != null) {
+                cache.refresh(KEY);
+            }
+            return cache.get(KEY);
+        }
+
+        void markStale() {
+            stale.set(true);
+        }
+    }
+}
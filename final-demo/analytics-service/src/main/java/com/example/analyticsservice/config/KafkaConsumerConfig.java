@@ -0,0 +1,48 @@
+package com.example.analyticsservice.config;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    /**
+     * Publishes a failed record to "<topic>.DLT" with the original headers
+     * plus the exception details. The partition is left to the producer so
+     * the DLT may have fewer partitions than the source topic.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaOperations<String, String> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, ex) -> new TopicPartition(record.topic() + ".DLT", -1));
+    }
+
+    /**
+     * Picked up by Boot's listener container factory. OrderEventConsumer
+     * reports the first record of a poll that fails; records that can
+     * never succeed - undecodable payloads, or data the star schema
+     * rejects - go to the DLT at once. Anything else, such as a lost
+     * connection or a timeout, is retried from that record with
+     * exponential back-off (at most 30s apart) until it succeeds, so a
+     * warehouse outage delays events instead of dead-lettering them.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        ExponentialBackOff backOff = new ExponentialBackOff(500, 2.0);
+        backOff.setMaxInterval(30_000);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetterRecoverer, backOff);
+        // Rows the schema rejects, added to the defaults such as ConversionException.
+        // BadSqlGrammarException is an InvalidDataAccessResourceUsageException.
+        errorHandler.addNotRetryableExceptions(DataIntegrityViolationException.class,
+                InvalidDataAccessResourceUsageException.class);
+        errorHandler.setCommitRecovered(true);
+        return errorHandler;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.analyticsservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+/**
+ * Embedded H2 stand-in for Snowflake (analytics.store=h2), so the star
+ * schema can be loaded and queried without a warehouse account. Creates
+ * the same tables and views on startup; the writer and dashboard queries
+ * run unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "analytics.store", havingValue = "h2")
+public class LocalAnalyticsStoreConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "analytics.local.datasource")
+    public DataSource snowflakeDataSource() {
+        return DataSourceBuilder.create()
+                .type(com.zaxxer.hikari.HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public DataSourceInitializer starSchemaInitializer(DataSource snowflakeDataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(snowflakeDataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("analytics-h2/schema.sql")));
+        return initializer;
+    }
+
+    @Bean
+    public JdbcTemplate snowflakeJdbcTemplate(DataSource snowflakeDataSource) {
+        return new JdbcTemplate(snowflakeDataSource);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.analyticsservice.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
@@ -9,6 +10,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import javax.sql.DataSource;
 
 @Configuration
+@ConditionalOnProperty(name = "analytics.store", havingValue = "snowflake", matchIfMissing = true)
 public class SnowflakeDataSourceConfig {
 
     @Bean
@@ -1,29 +1,74 @@
 package com.example.analyticsservice.consumer;
 
-import com.example.analyticsservice.service.AnalyticsService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.analyticsservice.event.OrderEvent;
+import com.example.analyticsservice.event.OrderEventDecoder;
+import com.example.analyticsservice.loader.StarSchemaBatchLoader;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.converter.ConversionException;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch listener (spring.kafka.listener.type=batch, ack-mode=manual).
+ *
+ * A poll's records are parsed and written as one batch; the offsets are
+ * committed only after the write succeeds. Any failure is reported to the
+ * container's error handler (see KafkaConsumerConfig) as a
+ * BatchListenerFailedException naming the first record at fault, after the
+ * records before it have been written:
+ * - a record that cannot be parsed fails with a ConversionException;
+ * - if the batch write fails, the events are written again one at a time
+ *   (the fact insert skips orders already written) and the first one that
+ *   fails is reported with its write error.
+ * The error handler then commits the records before it and either retries
+ * from that record or dead-letters it, depending on the error.
+ */
 @Component
 public class OrderEventConsumer {
 
-    private final AnalyticsService analyticsService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StarSchemaBatchLoader batchLoader;
+    private final OrderEventDecoder decoder;
 
-    public OrderEventConsumer(AnalyticsService analyticsService) {
-        this.analyticsService = analyticsService;
+    public OrderEventConsumer(StarSchemaBatchLoader batchLoader, OrderEventDecoder decoder) {
+        this.batchLoader = batchLoader;
+        this.decoder = decoder;
     }
 
     @KafkaListener(topics = "order-events", groupId = "order-analytics-group")
-    public void handleOrderEvent(String event) {
+    public void handleOrderEvents(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
+        List<OrderEvent> orderEvents = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            try {
+                orderEvents.add(decoder.decode(record.value()));
+            } catch (Exception e) {
+                // orderEvents holds exactly the records before this one
+                write(orderEvents);
+                throw new BatchListenerFailedException("Cannot decode order event",
+                        new ConversionException("Cannot decode order event", record, e), orderEvents.size());
+            }
+        }
+
+        write(orderEvents);
+        ack.acknowledge();
+        System.out.println("Analytics: Loaded " + orderEvents.size() + " order events");
+    }
+
+    private void write(List<OrderEvent> orderEvents) {
         try {
-            JsonNode orderEvent = objectMapper.readTree(event);
-            System.out.println("Analytics: Received order event for orderId=" + orderEvent.get("orderId").asText());
-            analyticsService.writeOrderToSnowflake(orderEvent);
-        } catch (Exception e) {
-            System.err.println("Analytics: Failed to process order event: " + e.getMessage());
+            batchLoader.load(orderEvents);
+        } catch (RuntimeException batchFailure) {
+            for (int i = 0; i < orderEvents.size(); i++) {
+                try {
+                    batchLoader.load(orderEvents.subList(i, i + 1));
+                } catch (RuntimeException e) {
+                    throw new BatchListenerFailedException("Cannot write order event", e, i);
+                }
+            }
         }
     }
 }
@@ -1,9 +1,10 @@
 package com.example.analyticsservice.controller;
 
+import com.example.analyticsservice.aggregate.OrderAggregates;
+import com.example.analyticsservice.cache.DashboardCache;
 import com.example.analyticsservice.dto.OrderSummaryDto;
 import com.example.analyticsservice.dto.RecentOrderDto;
 import com.example.analyticsservice.dto.TopProductDto;
-import com.example.analyticsservice.service.AnalyticsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -15,24 +16,32 @@ import java.util.List;
 @RequestMapping("/api/v1/analytics")
 public class AnalyticsController {
 
-    private final AnalyticsService analyticsService;
+    private final DashboardCache dashboardCache;
+    private final OrderAggregates orderAggregates;
 
-    public AnalyticsController(AnalyticsService analyticsService) {
-        this.analyticsService = analyticsService;
+    public AnalyticsController(DashboardCache dashboardCache, OrderAggregates orderAggregates) {
+        this.dashboardCache = dashboardCache;
+        this.orderAggregates = orderAggregates;
     }
 
     @GetMapping("/summary")
     public ResponseEntity<List<OrderSummaryDto>> getDailySummary() {
-        return ResponseEntity.ok(analyticsService.getDailySummary());
+        if (orderAggregates.isReady()) {
+            return ResponseEntity.ok(orderAggregates.getDailySummary());
+        }
+        return ResponseEntity.ok(dashboardCache.getDailySummary());
     }
 
     @GetMapping("/top-products")
     public ResponseEntity<List<TopProductDto>> getTopProducts() {
-        return ResponseEntity.ok(analyticsService.getTopProducts());
+        if (orderAggregates.isReady()) {
+            return ResponseEntity.ok(orderAggregates.getTopProducts());
+        }
+        return ResponseEntity.ok(dashboardCache.getTopProducts());
     }
 
     @GetMapping("/recent-orders")
     public ResponseEntity<List<RecentOrderDto>> getRecentOrders() {
-        return ResponseEntity.ok(analyticsService.getRecentOrders());
+        return ResponseEntity.ok(dashboardCache.getRecentOrders());
     }
 }
@@ -1,5 +1,6 @@
 package com.example.analyticsservice.dto;
 
+import com.example.analyticsservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -8,7 +9,7 @@ import lombok.Data;
 public class OrderSummaryDto {
     private String orderDay;
     private int totalOrders;
-    private double totalRevenue;
-    private double avgOrderValue;
+    private Money totalRevenue;
+    private Money avgOrderValue;
     private int totalItems;
 }
@@ -1,5 +1,6 @@
 package com.example.analyticsservice.dto;
 
+import com.example.analyticsservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -11,6 +12,6 @@ public class RecentOrderDto {
     private String customerEmail;
     private String orderDate;
     private String status;
-    private double totalAmount;
+    private Money totalAmount;
     private int itemCount;
 }
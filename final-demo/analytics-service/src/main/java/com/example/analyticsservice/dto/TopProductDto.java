@@ -1,5 +1,6 @@
 package com.example.analyticsservice.dto;
 
+import com.example.analyticsservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -9,6 +10,6 @@ public class TopProductDto {
     private String productName;
     private int timesOrdered;
     private int totalUnitsSold;
-    private double totalRevenue;
-    private double avgUnitPrice;
+    private Money totalRevenue;
+    private Money avgUnitPrice;
 }
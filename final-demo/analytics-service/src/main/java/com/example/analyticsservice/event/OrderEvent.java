@@ -0,0 +1,51 @@
+package com.example.analyticsservice.event;
+
+import com.example.analyticsservice.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Consumer-side copy of order-service's OrderEvent, as published to the
+ * "order-events" topic. Unknown fields are ignored so the producer can add
+ * fields first.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OrderEvent(Long orderId,
+                         String customerName,
+                         String customerEmail,
+                         LocalDateTime orderDate,
+                         String status,
+                         Money totalAmount,
+                         int itemCount,
+                         List<Item> items) {
+
+    public OrderEvent {
+        Objects.requireNonNull(orderId, "orderId");
+        Objects.requireNonNull(customerName, "customerName");
+        Objects.requireNonNull(customerEmail, "customerEmail");
+        Objects.requireNonNull(status, "status");
+        Objects.requireNonNull(totalAmount, "totalAmount");
+        items = items != null ? items : List.of();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(long productId,
+                       String productName,
+                       String category,
+                       String brand,
+                       int quantity,
+                       Money unitPrice,
+                       Money lineTotal) {
+
+        public Item {
+            Objects.requireNonNull(productName, "productName");
+            Objects.requireNonNull(unitPrice, "unitPrice");
+            Objects.requireNonNull(lineTotal, "lineTotal");
+            category = category != null ? category : "";
+            brand = brand != null ? brand : "";
+        }
+    }
+}
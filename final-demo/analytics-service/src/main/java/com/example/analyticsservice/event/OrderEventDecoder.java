@@ -0,0 +1,148 @@
+package com.example.analyticsservice.event;
+
+import com.example.analyticsservice.money.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes "order-events" payloads into {@link OrderEvent}s.
+ *
+ * The default (analytics.consumer.decoder=databind) binds straight into the
+ * records through one pre-built, thread-safe ObjectReader. "streaming"
+ * walks the tokens with a JsonParser instead, skipping databind's
+ * per-property dispatch; both accept the same input.
+ */
+@Component
+public class OrderEventDecoder {
+
+    private final ObjectReader reader;
+    private final JsonFactory jsonFactory;
+    private final boolean streaming;
+
+    public OrderEventDecoder(@Value("${analytics.consumer.decoder:databind}") String decoder) {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                // Amounts are read as BigDecimal so they convert to Money without binary rounding
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.reader = mapper.readerFor(OrderEvent.class);
+        this.jsonFactory = mapper.getFactory();
+        this.streaming = "streaming".equals(decoder);
+    }
+
+    public OrderEvent decode(String json) throws IOException {
+        return streaming ? decodeStreaming(json) : reader.readValue(json);
+    }
+
+    private OrderEvent decodeStreaming(String json) throws IOException {
+        try (JsonParser p = jsonFactory.createParser(json)) {
+            expect(p.nextToken(), JsonToken.START_OBJECT);
+            Long orderId = null;
+            String customerName = null;
+            String customerEmail = null;
+            LocalDateTime orderDate = null;
+            String status = null;
+            Money totalAmount = null;
+            int itemCount = 0;
+            List<OrderEvent.Item> items = null;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "orderId" -> orderId = p.currentToken() == JsonToken.VALUE_NULL ? null : p.getLongValue();
+                    case "customerName" -> customerName = p.getValueAsString();
+                    case "customerEmail" -> customerEmail = p.getValueAsString();
+                    case "orderDate" -> orderDate = readDateTime(p);
+                    case "status" -> status = p.getValueAsString();
+                    case "totalAmount" -> totalAmount = readMoney(p);
+                    case "itemCount" -> itemCount = p.getValueAsInt();
+                    case "items" -> items = readItems(p);
+                    default -> p.skipChildren();
+                }
+            }
+            return new OrderEvent(orderId, customerName, customerEmail, orderDate, status,
+                    totalAmount, itemCount, items);
+        }
+    }
+
+    private static List<OrderEvent.Item> readItems(JsonParser p) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(p.currentToken(), JsonToken.START_ARRAY);
+        List<OrderEvent.Item> items = new ArrayList<>();
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            long productId = 0;
+            String productName = null;
+            String category = null;
+            String brand = null;
+            int quantity = 0;
+            Money unitPrice = null;
+            Money lineTotal = null;
+
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "productId" -> productId = p.getValueAsLong();
+                    case "productName" -> productName = p.getValueAsString();
+                    case "category" -> category = p.getValueAsString();
+                    case "brand" -> brand = p.getValueAsString();
+                    case "quantity" -> quantity = p.getValueAsInt();
+                    case "unitPrice" -> unitPrice = readMoney(p);
+                    case "lineTotal" -> lineTotal = readMoney(p);
+                    default -> p.skipChildren();
+                }
+            }
+            items.add(new OrderEvent.Item(productId, productName, category, brand, quantity, unitPrice, lineTotal));
+        }
+        return items;
+    }
+
+    private static Money readMoney(JsonParser p) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> Money.of(p.getDecimalValue());
+            case VALUE_STRING -> Money.of(new BigDecimal(p.getText()));
+            case VALUE_NULL -> null;
+            default -> throw new IOException("Expected an amount but found " + p.currentToken());
+        };
+    }
+
+    // JavaTimeModule writes LocalDateTime as [y, M, d, h, m, s, nanos] unless configured for ISO strings
+    private static LocalDateTime readDateTime(JsonParser p) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_STRING -> LocalDateTime.parse(p.getText());
+            case VALUE_NULL -> null;
+            case START_ARRAY -> {
+                int[] parts = new int[7];
+                int n = 0;
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    if (n < parts.length) {
+                        parts[n++] = p.getIntValue();
+                    }
+                }
+                yield LocalDateTime.of(parts[0], parts[1], parts[2], parts[3], parts[4], parts[5], parts[6]);
+            }
+            default -> throw new IOException("Expected a date-time but found " + p.currentToken());
+        };
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.analyticsservice.loader;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process copy of the star schema's dimension members and their
+ * surrogate keys: CUSTOMER_KEY by email, PRODUCT_KEY by product id, and the
+ * DATE_KEYs already present in DIM_DATE.
+ *
+ * Warmed with one SELECT per dimension at startup and updated by the
+ * writer after each MERGE. A member whose cached attributes still match
+ * the event needs neither a MERGE nor a key lookup.
+ */
+@Component
+public class DimensionKeyCache {
+
+    private final JdbcTemplate snowflakeJdbcTemplate;
+
+    private final Map<String, CustomerEntry> customers = new ConcurrentHashMap<>();
+    private final Map<Long, ProductEntry> products = new ConcurrentHashMap<>();
+    private final Set<String> dates = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Value("${snowflake.fallback.log-only:false}")
+    private boolean logOnly;
+
+    public DimensionKeyCache(JdbcTemplate snowflakeJdbcTemplate, MeterRegistry meterRegistry) {
+        this.snowflakeJdbcTemplate = snowflakeJdbcTemplate;
+
+        FunctionCounter.builder("analytics.dimension.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("analytics.dimension.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("analytics.dimension.cache.size", customers, Map::size)
+                .tag("dimension", "customer")
+                .register(meterRegistry);
+        Gauge.builder("analytics.dimension.cache.size", products, Map::size)
+                .tag("dimension", "product")
+                .register(meterRegistry);
+        Gauge.builder("analytics.dimension.cache.size", dates, Set::size)
+                .tag("dimension", "date")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (logOnly) {
+            return;
+        }
+        try {
+            snowflakeJdbcTemplate.query("SELECT CUSTOMER_EMAIL, CUSTOMER_NAME, CUSTOMER_KEY FROM DIM_CUSTOMER",
+                    rs -> {
+                        customers.put(rs.getString(1), new CustomerEntry(rs.getLong(3), rs.getString(2)));
+                    });
+            snowflakeJdbcTemplate.query("SELECT PRODUCT_ID, PRODUCT_NAME, CATEGORY, BRAND, PRODUCT_KEY FROM DIM_PRODUCT",
+                    rs -> {
+                        products.put(rs.getLong(1), new ProductEntry(rs.getLong(5),
+                                rs.getString(2), rs.getString(3), rs.getString(4)));
+                    });
+            snowflakeJdbcTemplate.query("SELECT DATE_KEY FROM DIM_DATE",
+                    rs -> {
+                        dates.add(rs.getDate(1).toLocalDate().toString());
+                    });
+            System.out.println("Dimension key cache loaded: " + customers.size() + " customers, " +
+                    products.size() + " products, " + dates.size() + " dates");
+        } catch (Exception e) {
+            // Not fatal: members are cached as batches are written
+            System.err.println("Dimension key cache warm-up failed: " + e.getMessage());
+        }
+    }
+
+    /** CUSTOMER_KEY if the customer is known with this name, otherwise null. */
+    public Long customerKey(String email, String name) {
+        CustomerEntry entry = customers.get(email);
+        return record(entry != null && Objects.equals(entry.name(), name) ? entry.key() : null);
+    }
+
+    public void putCustomer(String email, String name, long key) {
+        customers.put(email, new CustomerEntry(key, name));
+    }
+
+    /** PRODUCT_KEY if the product is known with these attributes, otherwise null. */
+    public Long productKey(long productId, String name, String category, String brand) {
+        ProductEntry entry = products.get(productId);
+        boolean current = entry != null
+                && Objects.equals(entry.name(), name)
+                && Objects.equals(entry.category(), category)
+                && Objects.equals(entry.brand(), brand);
+        return record(current ? entry.key() : null);
+    }
+
+    public void putProduct(long productId, String name, String category, String brand, long key) {
+        products.put(productId, new ProductEntry(key, name, category, brand));
+    }
+
+    /** Whether DIM_DATE already has this yyyy-MM-dd date. */
+    public boolean hasDate(String dateKey) {
+        boolean known = dates.contains(dateKey);
+        (known ? hits : misses).increment();
+        return known;
+    }
+
+    public void putDate(String dateKey) {
+        dates.add(dateKey);
+    }
+
+    private Long record(Long key) {
+        (key != null ? hits : misses).increment();
+        return key;
+    }
+
+    private record CustomerEntry(long key, String name) {
+    }
+
+    private record ProductEntry(long key, String name, String category, String brand) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.analyticsservice.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Monetary amount in US dollars, as a long count of cents.
+ *
+ * The system is single-currency: prices, balances and event amounts are
+ * all USD, so no currency is stored or sent with an amount. Supporting a
+ * second currency means adding it to the JSON and Kafka formats first.
+ *
+ * Instances are immutable and used on DTOs and order events. The
+ * static *Minor helpers work on raw minor units and allocate nothing, for
+ * loops such as order totals. All amounts carry two decimal places and
+ * serialize to JSON as a plain decimal number (59.98).
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return ofMinor(toMinor(amount));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(addMinor(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(subtractMinor(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(multiplyMinor(minorUnits, quantity));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    // ---- Allocation-free arithmetic on raw minor units ----
+
+    public static long addMinor(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtractMinor(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long multiplyMinor(long unitMinor, int quantity) {
+        return Math.multiplyExact(unitMinor, (long) quantity);
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static String format(long minorUnits) {
+        long abs = Math.abs(minorUnits);
+        long minor = abs % MINOR_PER_MAJOR;
+        StringBuilder sb = new StringBuilder(24);
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        sb.append(abs / MINOR_PER_MAJOR).append('.');
+        if (minor < 10) {
+            sb.append('0');
+        }
+        return sb.append(minor).toString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return format(minorUnits);
+    }
+}
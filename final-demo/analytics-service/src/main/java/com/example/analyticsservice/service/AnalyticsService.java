@@ -3,113 +3,266 @@ package com.example.analyticsservice.service;
 import com.example.analyticsservice.dto.OrderSummaryDto;
 import com.example.analyticsservice.dto.RecentOrderDto;
 import com.example.analyticsservice.dto.TopProductDto;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.analyticsservice.event.OrderEvent;
+import com.example.analyticsservice.loader.DimensionKeyCache;
+import com.example.analyticsservice.money.Money;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.sql.Timestamp;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class AnalyticsService {
 
     private final JdbcTemplate snowflakeJdbcTemplate;
+    private final DimensionKeyCache dimensionKeys;
 
     @Value("${snowflake.fallback.log-only:false}")
     private boolean logOnly;
 
-    public AnalyticsService(JdbcTemplate snowflakeJdbcTemplate) {
+    public AnalyticsService(JdbcTemplate snowflakeJdbcTemplate, DimensionKeyCache dimensionKeys) {
         this.snowflakeJdbcTemplate = snowflakeJdbcTemplate;
+        this.dimensionKeys = dimensionKeys;
     }
 
     // ---- WRITE: Insert order data into Star Schema ----
 
-    public void writeOrderToSnowflake(JsonNode orderEvent) {
-        long orderId = orderEvent.get("orderId").asLong();
-        String customerName = orderEvent.get("customerName").asText();
-        String customerEmail = orderEvent.get("customerEmail").asText();
-        String orderDateStr = orderEvent.get("orderDate").asText();
-        String status = orderEvent.get("status").asText();
-        double totalAmount = orderEvent.get("totalAmount").asDouble();
-        int itemCount = orderEvent.get("itemCount").asInt();
-
-        LocalDateTime orderDate;
-        try {
-            orderDate = LocalDateTime.parse(orderDateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-        } catch (Exception e) {
-            orderDate = LocalDateTime.now();
+    /**
+     * Writes a batch of order events. Dimension members already in the
+     * {@link DimensionKeyCache} with unchanged attributes are skipped; the
+     * rest are upserted with one set-based MERGE per dimension and their
+     * surrogate keys fetched with one IN query. All line items then go into
+     * FACT_ORDER_ITEMS with a single multi-row INSERT.
+     *
+     * Writing is idempotent per order: orders that already have fact rows -
+     * from an earlier attempt at a poll that failed further on - and repeats
+     * within the batch are skipped, and the INSERT itself only adds rows for
+     * order ids not yet in FACT_ORDER_ITEMS. Returns the orders written now.
+     */
+    public List<OrderEvent> writeOrdersToSnowflake(List<OrderEvent> orderEvents) {
+        if (!logOnly) {
+            orderEvents = withoutWrittenOrders(orderEvents);
         }
+        Map<String, String> customers = new LinkedHashMap<>();   // email -> name
+        Set<String> dates = new LinkedHashSet<>();
+        Map<Long, ProductRow> products = new LinkedHashMap<>();
+        List<FactRow> facts = new ArrayList<>();
 
-        if (logOnly) {
-            System.out.println("[FALLBACK] Would write order " + orderId + " to star schema");
-            System.out.println("[FALLBACK]   Customer: " + customerName + " (" + customerEmail + ")");
-            System.out.println("[FALLBACK]   Date: " + orderDate + ", Total: $" + totalAmount + ", Items: " + itemCount);
-            JsonNode items = orderEvent.get("items");
-            if (items != null) {
-                for (JsonNode item : items) {
-                    System.out.println("[FALLBACK]   Item: " + item.get("productName").asText() +
-                            " (qty=" + item.get("quantity").asInt() + ", $" + item.get("lineTotal").asDouble() + ")");
-                }
+        for (OrderEvent orderEvent : orderEvents) {
+            LocalDateTime orderDate = orderEvent.orderDate() != null ? orderEvent.orderDate() : LocalDateTime.now();
+
+            if (logOnly) {
+                logOrder(orderEvent, orderDate);
+                continue;
             }
-            return;
+
+            String dateKey = orderDate.toLocalDate().toString(); // yyyy-MM-dd
+            customers.put(orderEvent.customerEmail(), orderEvent.customerName());
+            dates.add(dateKey);
+
+            for (OrderEvent.Item item : orderEvent.items()) {
+                products.put(item.productId(), new ProductRow(
+                        item.productId(), item.productName(), item.category(), item.brand()));
+                facts.add(new FactRow(
+                        orderEvent.orderId(), orderEvent.customerEmail(), item.productId(), dateKey,
+                        orderEvent.status(), item.quantity(), item.unitPrice(), item.lineTotal()));
+            }
+        }
+
+        if (customers.isEmpty()) {
+            return orderEvents;
+        }
+
+        Map<String, Long> customerKeys = resolveCustomers(customers);
+        resolveDates(dates);
+        Map<Long, Long> productKeys = resolveProducts(products.values());
+
+        if (!facts.isEmpty()) {
+            // 4. Insert FACT_ORDER_ITEMS
+            List<Object> args = new ArrayList<>(facts.size() * 8);
+            for (FactRow fact : facts) {
+                args.add(fact.orderId());
+                args.add(customerKeys.get(fact.customerEmail()));
+                args.add(productKeys.get(fact.productId()));
+                args.add(fact.dateKey());
+                args.add(fact.status());
+                args.add(fact.quantity());
+                args.add(fact.unitPrice().toDecimal());
+                args.add(fact.lineTotal().toDecimal());
+            }
+            snowflakeJdbcTemplate.update(
+                    "INSERT INTO FACT_ORDER_ITEMS (ORDER_ID, CUSTOMER_KEY, PRODUCT_KEY, DATE_KEY, STATUS, QUANTITY, UNIT_PRICE, LINE_TOTAL) " +
+                    "SELECT v.OID, v.CK, v.PK, CAST(v.DK AS DATE), v.ST, v.QTY, v.UP, v.LT FROM (VALUES " +
+                    rows(facts.size(), 8) + ") AS v(OID, CK, PK, DK, ST, QTY, UP, LT) " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM FACT_ORDER_ITEMS f WHERE f.ORDER_ID = v.OID)",
+                    args.toArray());
         }
 
-        // 1. Upsert DIM_CUSTOMER
+        System.out.println("Wrote " + orderEvents.size() + " orders to Star Schema (" + facts.size() + " items)");
+        return orderEvents;
+    }
+
+    private List<OrderEvent> withoutWrittenOrders(List<OrderEvent> orderEvents) {
+        Map<Long, OrderEvent> byOrderId = new LinkedHashMap<>();
+        for (OrderEvent orderEvent : orderEvents) {
+            byOrderId.putIfAbsent(orderEvent.orderId(), orderEvent);
+        }
+        if (byOrderId.isEmpty()) {
+            return List.of();
+        }
+        snowflakeJdbcTemplate.queryForList(
+                "SELECT DISTINCT ORDER_ID FROM FACT_ORDER_ITEMS WHERE ORDER_ID IN (" +
+                placeholders(byOrderId.size()) + ")",
+                Long.class, byOrderId.keySet().toArray())
+                .forEach(byOrderId::remove);
+        return byOrderId.size() == orderEvents.size() ? orderEvents : new ArrayList<>(byOrderId.values());
+    }
+
+    private Map<String, Long> resolveCustomers(Map<String, String> customers) {
+        Map<String, Long> keys = new HashMap<>();
+        Map<String, String> changed = new LinkedHashMap<>();
+        customers.forEach((email, name) -> {
+            Long key = dimensionKeys.customerKey(email, name);
+            if (key != null) {
+                keys.put(email, key);
+            } else {
+                changed.put(email, name);
+            }
+        });
+        if (changed.isEmpty()) {
+            return keys;
+        }
+
+        // 1. Upsert DIM_CUSTOMER for new or renamed customers
+        List<Object> args = new ArrayList<>();
+        changed.forEach((email, name) -> {
+            args.add(email);
+            args.add(name);
+        });
         snowflakeJdbcTemplate.update(
-                "MERGE INTO DIM_CUSTOMER t USING (SELECT ? AS EMAIL, ? AS NAME) s " +
+                "MERGE INTO DIM_CUSTOMER t USING (SELECT EMAIL, NAME FROM (VALUES " + rows(changed.size(), 2) +
+                ") AS v(EMAIL, NAME)) s " +
                 "ON t.CUSTOMER_EMAIL = s.EMAIL " +
                 "WHEN MATCHED THEN UPDATE SET CUSTOMER_NAME = s.NAME " +
                 "WHEN NOT MATCHED THEN INSERT (CUSTOMER_NAME, CUSTOMER_EMAIL) VALUES (s.NAME, s.EMAIL)",
-                customerEmail, customerName);
+                args.toArray());
+
+        snowflakeJdbcTemplate.query(
+                "SELECT CUSTOMER_EMAIL, CUSTOMER_KEY FROM DIM_CUSTOMER WHERE CUSTOMER_EMAIL IN (" +
+                placeholders(changed.size()) + ")",
+                rs -> {
+                    String email = rs.getString(1);
+                    long key = rs.getLong(2);
+                    keys.put(email, key);
+                    dimensionKeys.putCustomer(email, changed.get(email), key);
+                },
+                changed.keySet().toArray());
+        return keys;
+    }
+
+    private void resolveDates(Set<String> dates) {
+        List<String> missing = dates.stream().filter(d -> !dimensionKeys.hasDate(d)).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
 
-        // 2. Upsert DIM_DATE
-        String dateKey = orderDate.toLocalDate().toString(); // yyyy-MM-dd
+        // 2. Upsert DIM_DATE for days not seen before
         snowflakeJdbcTemplate.update(
-                "MERGE INTO DIM_DATE t USING (SELECT ?::DATE AS DK) s " +
+                "MERGE INTO DIM_DATE t USING (SELECT CAST(DK AS DATE) AS DK FROM (VALUES " + rows(missing.size(), 1) +
+                ") AS v(DK)) s " +
                 "ON t.DATE_KEY = s.DK " +
                 "WHEN NOT MATCHED THEN INSERT (DATE_KEY, DAY, MONTH, QUARTER, YEAR) " +
-                "VALUES (s.DK, DAYOFMONTH(s.DK), MONTH(s.DK), QUARTER(s.DK), YEAR(s.DK))",
-                dateKey);
-
-        // Get customer surrogate key
-        Long customerKey = snowflakeJdbcTemplate.queryForObject(
-                "SELECT CUSTOMER_KEY FROM DIM_CUSTOMER WHERE CUSTOMER_EMAIL = ?",
-                Long.class, customerEmail);
-
-        // 3. Upsert DIM_PRODUCT + insert FACT_ORDER_ITEMS for each item
-        JsonNode items = orderEvent.get("items");
-        if (items != null) {
-            for (JsonNode item : items) {
-                long productId = item.get("productId").asLong();
-                String productName = item.get("productName").asText();
-                String category = item.has("category") ? item.get("category").asText() : "";
-                String brand = item.has("brand") ? item.get("brand").asText() : "";
-
-                snowflakeJdbcTemplate.update(
-                        "MERGE INTO DIM_PRODUCT t USING (SELECT ? AS PID, ? AS PNAME, ? AS CAT, ? AS BRD) s " +
-                        "ON t.PRODUCT_ID = s.PID " +
-                        "WHEN MATCHED THEN UPDATE SET PRODUCT_NAME = s.PNAME, CATEGORY = s.CAT, BRAND = s.BRD " +
-                        "WHEN NOT MATCHED THEN INSERT (PRODUCT_ID, PRODUCT_NAME, CATEGORY, BRAND) VALUES (s.PID, s.PNAME, s.CAT, s.BRD)",
-                        productId, productName, category, brand);
-
-                Long productKey = snowflakeJdbcTemplate.queryForObject(
-                        "SELECT PRODUCT_KEY FROM DIM_PRODUCT WHERE PRODUCT_ID = ?",
-                        Long.class, productId);
-
-                snowflakeJdbcTemplate.update(
-                        "INSERT INTO FACT_ORDER_ITEMS (ORDER_ID, CUSTOMER_KEY, PRODUCT_KEY, DATE_KEY, STATUS, QUANTITY, UNIT_PRICE, LINE_TOTAL) " +
-                        "VALUES (?, ?, ?, ?::DATE, ?, ?, ?, ?)",
-                        orderId, customerKey, productKey, dateKey, status,
-                        item.get("quantity").asInt(),
-                        item.get("unitPrice").asDouble(),
-                        item.get("lineTotal").asDouble());
+                "VALUES (s.DK, EXTRACT(DAY FROM s.DK), EXTRACT(MONTH FROM s.DK), " +
+                "EXTRACT(QUARTER FROM s.DK), EXTRACT(YEAR FROM s.DK))",
+                missing.toArray());
+        missing.forEach(dimensionKeys::putDate);
+    }
+
+    private Map<Long, Long> resolveProducts(Collection<ProductRow> products) {
+        Map<Long, Long> keys = new HashMap<>();
+        Map<Long, ProductRow> changed = new LinkedHashMap<>();
+        for (ProductRow product : products) {
+            Long key = dimensionKeys.productKey(product.productId(), product.name(), product.category(), product.brand());
+            if (key != null) {
+                keys.put(product.productId(), key);
+            } else {
+                changed.put(product.productId(), product);
             }
         }
+        if (changed.isEmpty()) {
+            return keys;
+        }
+
+        // 3. Upsert DIM_PRODUCT for new or changed products
+        List<Object> args = new ArrayList<>();
+        for (ProductRow product : changed.values()) {
+            args.add(product.productId());
+            args.add(product.name());
+            args.add(product.category());
+            args.add(product.brand());
+        }
+        snowflakeJdbcTemplate.update(
+                "MERGE INTO DIM_PRODUCT t USING (SELECT PID, PNAME, CAT, BRD FROM (VALUES " +
+                rows(changed.size(), 4) + ") AS v(PID, PNAME, CAT, BRD)) s " +
+                "ON t.PRODUCT_ID = s.PID " +
+                "WHEN MATCHED THEN UPDATE SET PRODUCT_NAME = s.PNAME, CATEGORY = s.CAT, BRAND = s.BRD " +
+                "WHEN NOT MATCHED THEN INSERT (PRODUCT_ID, PRODUCT_NAME, CATEGORY, BRAND) VALUES (s.PID, s.PNAME, s.CAT, s.BRD)",
+                args.toArray());
+
+        snowflakeJdbcTemplate.query(
+                "SELECT PRODUCT_ID, PRODUCT_KEY FROM DIM_PRODUCT WHERE PRODUCT_ID IN (" +
+                placeholders(changed.size()) + ")",
+                rs -> {
+                    long productId = rs.getLong(1);
+                    long key = rs.getLong(2);
+                    ProductRow product = changed.get(productId);
+                    keys.put(productId, key);
+                    dimensionKeys.putProduct(productId, product.name(), product.category(), product.brand(), key);
+                },
+                changed.keySet().toArray());
+        return keys;
+    }
 
-        System.out.println("Wrote order " + orderId + " to Star Schema (" + (items != null ? items.size() : 0) + " items)");
+    private static void logOrder(OrderEvent orderEvent, LocalDateTime orderDate) {
+        System.out.println("[FALLBACK] Would write order " + orderEvent.orderId() + " to star schema");
+        System.out.println("[FALLBACK]   Customer: " + orderEvent.customerName() + " (" + orderEvent.customerEmail() + ")");
+        System.out.println("[FALLBACK]   Date: " + orderDate + ", Total: $" + orderEvent.totalAmount() +
+                ", Items: " + orderEvent.itemCount());
+        for (OrderEvent.Item item : orderEvent.items()) {
+            System.out.println("[FALLBACK]   Item: " + item.productName() +
+                    " (qty=" + item.quantity() + ", $" + item.lineTotal() + ")");
+        }
+    }
+
+    // "(?, ?), (?, ?), ..." for a multi-row VALUES list
+    private static String rows(int rowCount, int columnCount) {
+        return rows(rowCount, "(" + placeholders(columnCount) + ")");
+    }
+
+    private static String rows(int rowCount, String row) {
+        return String.join(", ", Collections.nCopies(rowCount, row));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private record ProductRow(long productId, String name, String category, String brand) {
+    }
+
+    private record FactRow(long orderId, String customerEmail, long productId, String dateKey, String status,
+                           int quantity, Money unitPrice, Money lineTotal) {
     }
 
     // ---- READ: Query Star Schema views ----
@@ -120,8 +273,8 @@ public class AnalyticsService {
         return snowflakeJdbcTemplate.query(sql, (rs, rowNum) -> new OrderSummaryDto(
                 rs.getString("ORDER_DAY"),
                 rs.getInt("TOTAL_ORDERS"),
-                rs.getDouble("TOTAL_REVENUE"),
-                rs.getDouble("AVG_ORDER_VALUE"),
+                money(rs.getBigDecimal("TOTAL_REVENUE")),
+                money(rs.getBigDecimal("AVG_ORDER_VALUE")),
                 rs.getInt("TOTAL_ITEMS")
         ));
     }
@@ -133,8 +286,8 @@ public class AnalyticsService {
                 rs.getString("PRODUCT_NAME"),
                 rs.getInt("TIMES_ORDERED"),
                 rs.getInt("TOTAL_UNITS_SOLD"),
-                rs.getDouble("TOTAL_REVENUE"),
-                rs.getDouble("AVG_UNIT_PRICE")
+                money(rs.getBigDecimal("TOTAL_REVENUE")),
+                money(rs.getBigDecimal("AVG_UNIT_PRICE"))
         ));
     }
 
@@ -147,8 +300,12 @@ public class AnalyticsService {
                 rs.getString("CUSTOMER_EMAIL"),
                 rs.getString("ORDER_DATE"),
                 rs.getString("STATUS"),
-                rs.getDouble("TOTAL_AMOUNT"),
+                money(rs.getBigDecimal("TOTAL_AMOUNT")),
                 rs.getInt("ITEM_COUNT")
         ));
     }
+
+    private static Money money(BigDecimal amount) {
+        return amount != null ? Money.of(amount) : Money.ZERO;
+    }
 }
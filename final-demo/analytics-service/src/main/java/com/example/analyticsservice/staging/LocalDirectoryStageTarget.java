@@ -0,0 +1,38 @@
+package com.example.analyticsservice.staging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Moves completed staging files into a local directory instead of a
+ * warehouse, so the writer and its rotation can be tried without Snowflake.
+ * The files can be inspected with zcat or loaded by hand.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.staging.target", havingValue = "local")
+public class LocalDirectoryStageTarget implements StageTarget {
+
+    private final Path targetDir;
+
+    public LocalDirectoryStageTarget(@Value("${analytics.staging.local.target-dir:./data/staged}") String targetDir) {
+        this.targetDir = Path.of(targetDir);
+    }
+
+    @Override
+    public void load(Path file) {
+        try {
+            Files.createDirectories(targetDir);
+            Files.move(file, targetDir.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to move " + file + " to " + targetDir, e);
+        }
+        System.out.println("Staged file moved to " + targetDir.resolve(file.getFileName()));
+    }
+}
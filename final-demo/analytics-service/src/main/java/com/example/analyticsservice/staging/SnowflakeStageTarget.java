@@ -0,0 +1,127 @@
+package com.example.analyticsservice.staging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Bulk-loads staging files into the star schema.
+ *
+ * The file is uploaded with PUT to the table stage of STG_ORDER_ITEMS, then
+ * one transaction COPYs it into that table, MERGEs its customers, dates
+ * and products into the dimensions, inserts the fact rows joined to their
+ * surrogate keys, and empties the staging table. A failed load rolls back
+ * as a whole and is retried with the same file.
+ *
+ * Snowflake records a file in the table's load history only when the COPY
+ * commits, so a rolled back load copies the file again, while a file that
+ * was loaded but not yet deleted when the service stopped is skipped. Fact rows are only
+ * inserted for orders that have none yet, so an order staged again in a
+ * later file is not counted twice either.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.staging.target", havingValue = "snowflake", matchIfMissing = true)
+public class SnowflakeStageTarget implements StageTarget {
+
+    private static final String CREATE_STAGING_TABLE =
+            "CREATE TRANSIENT TABLE IF NOT EXISTS STG_ORDER_ITEMS (" +
+            "ORDER_ID NUMBER, CUSTOMER_EMAIL VARCHAR(200), CUSTOMER_NAME VARCHAR(200), " +
+            "PRODUCT_ID NUMBER, PRODUCT_NAME VARCHAR(200), CATEGORY VARCHAR(100), BRAND VARCHAR(100), " +
+            "DATE_KEY DATE, STATUS VARCHAR(50), QUANTITY NUMBER, " +
+            "UNIT_PRICE NUMBER(10,2), LINE_TOTAL NUMBER(12,2))";
+
+    private static final String MERGE_CUSTOMERS =
+            "MERGE INTO DIM_CUSTOMER t USING (" +
+            "SELECT CUSTOMER_EMAIL, MAX(CUSTOMER_NAME) AS CUSTOMER_NAME FROM STG_ORDER_ITEMS GROUP BY CUSTOMER_EMAIL) s " +
+            "ON t.CUSTOMER_EMAIL = s.CUSTOMER_EMAIL " +
+            "WHEN MATCHED THEN UPDATE SET CUSTOMER_NAME = s.CUSTOMER_NAME " +
+            "WHEN NOT MATCHED THEN INSERT (CUSTOMER_NAME, CUSTOMER_EMAIL) VALUES (s.CUSTOMER_NAME, s.CUSTOMER_EMAIL)";
+
+    private static final String MERGE_DATES =
+            "MERGE INTO DIM_DATE t USING (SELECT DISTINCT DATE_KEY AS DK FROM STG_ORDER_ITEMS) s " +
+            "ON t.DATE_KEY = s.DK " +
+            "WHEN NOT MATCHED THEN INSERT (DATE_KEY, DAY, MONTH, QUARTER, YEAR) " +
+            "VALUES (s.DK, EXTRACT(DAY FROM s.DK), EXTRACT(MONTH FROM s.DK), " +
+            "EXTRACT(QUARTER FROM s.DK), EXTRACT(YEAR FROM s.DK))";
+
+    private static final String MERGE_PRODUCTS =
+            "MERGE INTO DIM_PRODUCT t USING (" +
+            "SELECT PRODUCT_ID, MAX(PRODUCT_NAME) AS PRODUCT_NAME, MAX(CATEGORY) AS CATEGORY, MAX(BRAND) AS BRAND " +
+            "FROM STG_ORDER_ITEMS GROUP BY PRODUCT_ID) s " +
+            "ON t.PRODUCT_ID = s.PRODUCT_ID " +
+            "WHEN MATCHED THEN UPDATE SET PRODUCT_NAME = s.PRODUCT_NAME, CATEGORY = s.CATEGORY, BRAND = s.BRAND " +
+            "WHEN NOT MATCHED THEN INSERT (PRODUCT_ID, PRODUCT_NAME, CATEGORY, BRAND) " +
+            "VALUES (s.PRODUCT_ID, s.PRODUCT_NAME, s.CATEGORY, s.BRAND)";
+
+    private static final String INSERT_FACTS =
+            "INSERT INTO FACT_ORDER_ITEMS (ORDER_ID, CUSTOMER_KEY, PRODUCT_KEY, DATE_KEY, STATUS, QUANTITY, UNIT_PRICE, LINE_TOTAL) " +
+            "SELECT s.ORDER_ID, c.CUSTOMER_KEY, p.PRODUCT_KEY, s.DATE_KEY, s.STATUS, s.QUANTITY, s.UNIT_PRICE, s.LINE_TOTAL " +
+            "FROM STG_ORDER_ITEMS s " +
+            "JOIN DIM_CUSTOMER c ON c.CUSTOMER_EMAIL = s.CUSTOMER_EMAIL " +
+            "JOIN DIM_PRODUCT p ON p.PRODUCT_ID = s.PRODUCT_ID " +
+            "WHERE NOT EXISTS (SELECT 1 FROM FACT_ORDER_ITEMS f WHERE f.ORDER_ID = s.ORDER_ID)";
+
+    private final JdbcTemplate snowflakeJdbcTemplate;
+    private volatile boolean tableCreated;
+
+    public SnowflakeStageTarget(JdbcTemplate snowflakeJdbcTemplate) {
+        this.snowflakeJdbcTemplate = snowflakeJdbcTemplate;
+    }
+
+    @Override
+    public void load(Path file) {
+        if (!tableCreated) {
+            snowflakeJdbcTemplate.execute(CREATE_STAGING_TABLE);
+            tableCreated = true;
+        }
+        String name = file.getFileName().toString();
+
+        // PUT is not transactional; OVERWRITE makes a retried upload replace the earlier one
+        snowflakeJdbcTemplate.execute("PUT 'file://" + file.toAbsolutePath().toString().replace('\\', '/') +
+                "' @%STG_ORDER_ITEMS AUTO_COMPRESS = FALSE OVERWRITE = TRUE");
+
+        snowflakeJdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (Statement st = con.createStatement()) {
+                // No FORCE: the load history skips a file whose earlier load committed
+                st.execute("COPY INTO STG_ORDER_ITEMS FROM @%STG_ORDER_ITEMS FILES = ('" + name + "') " +
+                        "FILE_FORMAT = (TYPE = CSV COMPRESSION = GZIP FIELD_OPTIONALLY_ENCLOSED_BY = '\"')");
+                st.execute(MERGE_CUSTOMERS);
+                st.execute(MERGE_DATES);
+                st.execute(MERGE_PRODUCTS);
+                int facts = st.executeUpdate(INSERT_FACTS);
+                st.execute("DELETE FROM STG_ORDER_ITEMS");
+                con.commit();
+                System.out.println("Loaded " + name + " into Star Schema (" + facts + " items)");
+            } catch (SQLException | RuntimeException e) {
+                rollback(con);
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+
+        try {
+            snowflakeJdbcTemplate.execute("REMOVE @%STG_ORDER_ITEMS/" + name);
+        } catch (Exception e) {
+            // Already loaded; a leftover stage file is only storage
+            System.err.println("Failed to remove " + name + " from the table stage: " + e.getMessage());
+        }
+    }
+
+    private static void rollback(Connection con) {
+        try {
+            con.rollback();
+        } catch (SQLException e) {
+            System.err.println("Rollback of staged load failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.analyticsservice.staging;
+
+import java.nio.file.Path;
+
+/**
+ * Destination for completed staging files (analytics.staging.target).
+ */
+public interface StageTarget {
+
+    /**
+     * Loads one gzip CSV file of order item rows. The caller deletes the
+     * file after this returns, unless it is already gone.
+     */
+    void load(Path file);
+}
@@ -0,0 +1,286 @@
+package com.example.analyticsservice.staging;
+
+import com.example.analyticsservice.cache.DashboardCache;
+import com.example.analyticsservice.event.OrderEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stages order events as gzip CSV files for bulk loading
+ * (analytics.loader.mode=staged).
+ *
+ * Each Kafka poll becomes one gzip member appended to the current
+ * *.csv.gz.part file (concatenated members are still one valid gzip file)
+ * and is forced to disk before the poll is acknowledged. The length of
+ * the last complete member is kept in a *.len sidecar, so a crash
+ * mid-append is cut back to it on startup. A file is closed and renamed to
+ * *.csv.gz once it reaches analytics.staging.max-file-bytes or
+ * analytics.staging.max-file-age-ms; closed files are handed to the
+ * {@link StageTarget} oldest first and deleted once loaded.
+ *
+ * Orders already in the current file are skipped, so a poll that is
+ * redelivered after a failure does not stage its orders twice.
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.loader.mode", havingValue = "staged")
+public class StagingPipeline {
+
+    private static final String SUFFIX = ".csv.gz";
+    private static final String PART = SUFFIX + ".part";
+    private static final String LENGTH = SUFFIX + ".len";
+
+    private final StageTarget target;
+    private final DashboardCache dashboardCache;
+    private final Path directory;
+    private final long maxFileBytes;
+    private final long maxFileAgeMs;
+    private final Object loadLock = new Object();
+
+    // Current file, guarded by this
+    private Path partFile;
+    private FileChannel channel;
+    private FileChannel lengthChannel;
+    private long committedLength;
+    private long openedAt;
+    private int sequence;
+    private final Set<Long> stagedOrders = new HashSet<>();
+
+    public StagingPipeline(StageTarget target,
+                           DashboardCache dashboardCache,
+                           @Value("${analytics.staging.dir:./data/staging}") String directory,
+                           @Value("${analytics.staging.max-file-bytes:104857600}") long maxFileBytes,
+                           @Value("${analytics.staging.max-file-age-ms:60000}") long maxFileAgeMs) {
+        this.target = target;
+        this.dashboardCache = dashboardCache;
+        this.directory = Path.of(directory);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileAgeMs = maxFileAgeMs;
+        try {
+            Files.createDirectories(this.directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open staging directory " + directory, e);
+        }
+    }
+
+    /**
+     * Appends the line items of the events not yet in the current file and
+     * forces them to disk. Returns the events that were appended.
+     */
+    public synchronized List<OrderEvent> append(List<OrderEvent> orderEvents) {
+        List<OrderEvent> unstaged = orderEvents.stream()
+                .filter(orderEvent -> !stagedOrders.contains(orderEvent.orderId()))
+                .toList();
+        byte[] member = gzip(unstaged);
+        if (member == null) {
+            return unstaged;
+        }
+        try {
+            if (channel == null) {
+                open();
+            }
+            // Drop anything left over from a failed append before writing at the end
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+            ByteBuffer buffer = ByteBuffer.wrap(member);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+
+            committedLength += member.length;
+            byte[] length = Long.toString(committedLength).getBytes(StandardCharsets.US_ASCII);
+            lengthChannel.write(ByteBuffer.wrap(length), 0);
+            lengthChannel.truncate(length.length);
+            lengthChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to staging file " + partFile, e);
+        }
+        unstaged.forEach(orderEvent -> stagedOrders.add(orderEvent.orderId()));
+        if (committedLength >= maxFileBytes) {
+            rotate();
+        }
+        return unstaged;
+    }
+
+    /** Closes the current file once it is old enough and loads closed files. */
+    @Scheduled(fixedDelayString = "${analytics.staging.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (this) {
+            if (channel != null && System.currentTimeMillis() - openedAt >= maxFileAgeMs) {
+                rotate();
+            }
+        }
+        try {
+            loadClosedFiles();
+        } catch (Exception e) {
+            // Files stay on disk and are retried on the next run
+            System.err.println("Staged load failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the current file whatever its age and loads everything staged.
+     * Throws if a load fails.
+     */
+    @PreDestroy
+    public void drain() {
+        synchronized (this) {
+            rotate();
+        }
+        loadClosedFiles();
+    }
+
+    private void loadClosedFiles() {
+        synchronized (loadLock) {
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to list staging directory " + directory, e);
+            }
+            for (Path file : files) {
+                target.load(file);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to delete loaded staging file " + file, e);
+                }
+            }
+            if (!files.isEmpty()) {
+                dashboardCache.markStale();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        openedAt = System.currentTimeMillis();
+        String name = String.format("order-items-%013d-%06d", openedAt, sequence++);
+        partFile = directory.resolve(name + PART);
+        channel = FileChannel.open(partFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        lengthChannel = FileChannel.open(lengthFile(partFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        committedLength = 0;
+        stagedOrders.clear();
+    }
+
+    private void rotate() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.truncate(committedLength);
+            channel.close();
+            lengthChannel.close();
+            close(partFile, committedLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close staging file " + partFile, e);
+        } finally {
+            channel = null;
+            lengthChannel = null;
+        }
+    }
+
+    // Finishes *.part files left behind by a crash, cut back to their last complete member
+    private void recover() throws IOException {
+        List<Path> parts;
+        try (Stream<Path> listing = Files.list(directory)) {
+            parts = listing.filter(f -> f.getFileName().toString().endsWith(PART)).toList();
+        }
+        for (Path part : parts) {
+            Path lengthFile = lengthFile(part);
+            String recorded = Files.exists(lengthFile) ? Files.readString(lengthFile, StandardCharsets.US_ASCII).trim() : "";
+            long length = recorded.isEmpty() ? 0 : Long.parseLong(recorded);
+            try (FileChannel recovered = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                recovered.truncate(length);
+            }
+            close(part, length);
+            System.out.println("Recovered staging file " + part.getFileName() + " (" + length + " bytes)");
+        }
+    }
+
+    private static void close(Path part, long length) throws IOException {
+        if (length > 0) {
+            String name = part.getFileName().toString();
+            Files.move(part, part.resolveSibling(name.substring(0, name.length() - PART.length()) + SUFFIX),
+                    StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.deleteIfExists(part);
+        }
+        Files.deleteIfExists(lengthFile(part));
+    }
+
+    private static Path lengthFile(Path part) {
+        String name = part.getFileName().toString();
+        return part.resolveSibling(name.substring(0, name.length() - PART.length()) + LENGTH);
+    }
+
+    // One gzip member of CSV rows in STG_ORDER_ITEMS column order, or null if there are no items
+    private static byte[] gzip(List<OrderEvent> orderEvents) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int rows = 0;
+        try (Writer out = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(256);
+            for (OrderEvent orderEvent : orderEvents) {
+                LocalDateTime orderDate = orderEvent.orderDate() != null ? orderEvent.orderDate() : LocalDateTime.now();
+                for (OrderEvent.Item item : orderEvent.items()) {
+                    line.setLength(0);
+                    line.append(orderEvent.orderId()).append(',');
+                    quote(line, orderEvent.customerEmail()).append(',');
+                    quote(line, orderEvent.customerName()).append(',');
+                    line.append(item.productId()).append(',');
+                    quote(line, item.productName()).append(',');
+                    quote(line, item.category()).append(',');
+                    quote(line, item.brand()).append(',');
+                    line.append(orderDate.toLocalDate()).append(',');
+                    quote(line, orderEvent.status()).append(',');
+                    line.append(item.quantity()).append(',');
+                    line.append(item.unitPrice().toDecimal().toPlainString()).append(',');
+                    line.append(item.lineTotal().toDecimal().toPlainString()).append('\n');
+                    out.append(line);
+                    rows++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows > 0 ? bytes.toByteArray() : null;
+    }
+
+    // Empty and unquoted for null, so COPY reads it as NULL
+    private static StringBuilder quote(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+}
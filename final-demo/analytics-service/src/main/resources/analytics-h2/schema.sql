@@ -0,0 +1,75 @@
+-- ============================================================
+-- Local star schema for analytics.store=h2
+-- Same tables and views as the Snowflake star schema
+-- (docs/03-STAR-SCHEMA.md), in H2 syntax
+-- ============================================================
+
+CREATE TABLE IF NOT EXISTS DIM_CUSTOMER (
+    CUSTOMER_KEY    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    CUSTOMER_NAME   VARCHAR(200)    NOT NULL,
+    CUSTOMER_EMAIL  VARCHAR(200)    NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS DIM_PRODUCT (
+    PRODUCT_KEY     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    PRODUCT_ID      BIGINT          NOT NULL UNIQUE,
+    PRODUCT_NAME    VARCHAR(200)    NOT NULL,
+    CATEGORY        VARCHAR(100),
+    BRAND           VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS DIM_DATE (
+    DATE_KEY        DATE            PRIMARY KEY,
+    DAY             INT             NOT NULL,
+    MONTH           INT             NOT NULL,
+    QUARTER         INT             NOT NULL,
+    YEAR            INT             NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS FACT_ORDER_ITEMS (
+    FACT_ID         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    ORDER_ID        BIGINT          NOT NULL,
+    CUSTOMER_KEY    BIGINT          NOT NULL REFERENCES DIM_CUSTOMER (CUSTOMER_KEY),
+    PRODUCT_KEY     BIGINT          NOT NULL REFERENCES DIM_PRODUCT (PRODUCT_KEY),
+    DATE_KEY        DATE            NOT NULL REFERENCES DIM_DATE (DATE_KEY),
+    STATUS          VARCHAR(50)     NOT NULL,
+    QUANTITY        INT             NOT NULL,
+    UNIT_PRICE      NUMERIC(10,2)   NOT NULL,
+    LINE_TOTAL      NUMERIC(12,2)   NOT NULL,
+    LOADED_AT       TIMESTAMP       DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS IDX_FACT_DATE ON FACT_ORDER_ITEMS (DATE_KEY);
+CREATE INDEX IF NOT EXISTS IDX_FACT_ORDER ON FACT_ORDER_ITEMS (ORDER_ID);
+
+CREATE OR REPLACE VIEW V_DAILY_ORDER_SUMMARY AS
+SELECT
+    f.DATE_KEY AS ORDER_DAY,
+    COUNT(DISTINCT f.ORDER_ID) AS TOTAL_ORDERS,
+    SUM(f.LINE_TOTAL) AS TOTAL_REVENUE,
+    ROUND(SUM(f.LINE_TOTAL) / NULLIF(COUNT(DISTINCT f.ORDER_ID), 0), 2) AS AVG_ORDER_VALUE,
+    SUM(f.QUANTITY) AS TOTAL_ITEMS
+FROM FACT_ORDER_ITEMS f
+GROUP BY f.DATE_KEY;
+
+CREATE OR REPLACE VIEW V_PRODUCT_PERFORMANCE AS
+SELECT
+    p.PRODUCT_NAME,
+    COUNT(DISTINCT f.ORDER_ID) AS TIMES_ORDERED,
+    SUM(f.QUANTITY) AS TOTAL_UNITS_SOLD,
+    SUM(f.LINE_TOTAL) AS TOTAL_REVENUE,
+    ROUND(AVG(f.UNIT_PRICE), 2) AS AVG_UNIT_PRICE
+FROM FACT_ORDER_ITEMS f
+JOIN DIM_PRODUCT p ON f.PRODUCT_KEY = p.PRODUCT_KEY
+GROUP BY p.PRODUCT_NAME;
+
+CREATE OR REPLACE VIEW V_RECENT_ORDERS AS
+SELECT
+    f.ORDER_ID, c.CUSTOMER_NAME, c.CUSTOMER_EMAIL,
+    f.DATE_KEY, f.STATUS,
+    SUM(f.LINE_TOTAL) AS TOTAL_AMOUNT,
+    SUM(f.QUANTITY) AS ITEM_COUNT
+FROM FACT_ORDER_ITEMS f
+JOIN DIM_CUSTOMER c ON f.CUSTOMER_KEY = c.CUSTOMER_KEY
+GROUP BY f.ORDER_ID, c.CUSTOMER_NAME, c.CUSTOMER_EMAIL, f.DATE_KEY, f.STATUS
+ORDER BY f.DATE_KEY DESC;
@@ -0,0 +1,136 @@
+package com.example.analyticsservice.event;
+
+import com.example.analyticsservice.money.Money;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Decoding cost of order events with 1, 10 and 50 items, in the format
+ * order-service publishes: the JsonNode tree with get(...) lookups the
+ * consumers used before, and the databind and streaming modes of
+ * {@link OrderEventDecoder}. Reports time and bytes allocated per event.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=OrderEventDecoderBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderEventDecoderBenchmarkTest {
+
+    private static final int[] ITEM_COUNTS = {1, 10, 50};
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final ObjectMapper treeMapper = new ObjectMapper();
+    private final OrderEventDecoder databind = new OrderEventDecoder("databind");
+    private final OrderEventDecoder streaming = new OrderEventDecoder("streaming");
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void decodeCostByItemCount() throws Exception {
+        System.out.printf("%-10s %6s %12s %14s%n", "decoder", "items", "ns/event", "bytes/event");
+        for (int items : ITEM_COUNTS) {
+            String json = payload(items);
+            OrderEvent expected = databind.decode(json);
+            assertThat(streaming.decode(json)).isEqualTo(expected);
+            assertThat(tree(json)).isEqualTo(expected);
+
+            measure("tree", items, () -> tree(json));
+            measure("databind", items, () -> databind.decode(json));
+            measure("streaming", items, () -> streaming.decode(json));
+        }
+    }
+
+    private void measure(String decoder, int items, Decode decode) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = decode.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = decode.run();
+        }
+        long nanos = System.nanoTime() - started;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertThat(sink).isNotNull();
+        System.out.printf("%-10s %6d %12.0f %14.0f%n", decoder, items,
+                (double) nanos / ITERATIONS, (double) allocated / ITERATIONS);
+    }
+
+    // What the consumers did before: parse a tree, then look each field up by name
+    private OrderEvent tree(String json) throws Exception {
+        JsonNode node = treeMapper.readTree(json);
+        List<OrderEvent.Item> items = new ArrayList<>();
+        for (JsonNode item : node.get("items")) {
+            items.add(new OrderEvent.Item(
+                    item.get("productId").asLong(),
+                    item.get("productName").asText(),
+                    item.has("category") ? item.get("category").asText() : "",
+                    item.has("brand") ? item.get("brand").asText() : "",
+                    item.get("quantity").asInt(),
+                    Money.of(item.get("unitPrice").decimalValue()),
+                    Money.of(item.get("lineTotal").decimalValue())));
+        }
+        JsonNode date = node.get("orderDate");
+        return new OrderEvent(
+                node.get("orderId").asLong(),
+                node.get("customerName").asText(),
+                node.get("customerEmail").asText(),
+                LocalDateTime.of(date.get(0).asInt(), date.get(1).asInt(), date.get(2).asInt(),
+                        date.get(3).asInt(), date.get(4).asInt(), date.get(5).asInt(), date.get(6).asInt()),
+                node.get("status").asText(),
+                Money.of(node.get("totalAmount").decimalValue()),
+                node.get("itemCount").asInt(),
+                items);
+    }
+
+    // An event as order-service writes it: JavaTimeModule's array dates, amounts as plain decimals
+    private static String payload(int itemCount) throws Exception {
+        List<Map<String, Object>> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal unitPrice = new BigDecimal("29.99").add(BigDecimal.valueOf(i));
+            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(2));
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", 1 + i);
+            item.put("productName", "Product " + i);
+            item.put("category", "Electronics");
+            item.put("brand", "TechBrand");
+            item.put("quantity", 2);
+            item.put("unitPrice", unitPrice);
+            item.put("lineTotal", lineTotal);
+            items.add(item);
+            total = total.add(lineTotal);
+        }
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("orderId", 42L);
+        event.put("customerName", "John Doe");
+        event.put("customerEmail", "john@example.com");
+        event.put("orderDate", LocalDateTime.of(2026, 2, 13, 10, 15, 30, 123_456_789));
+        event.put("status", "CONFIRMED");
+        event.put("totalAmount", total);
+        event.put("itemCount", itemCount);
+        event.put("items", items);
+        return new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(event);
+    }
+
+    @FunctionalInterface
+    private interface Decode {
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Proxy routes, backend timeouts and the response cache (gateway.* in
+ * application.properties).
+ *
+ * A request whose path matches a route's pattern is forwarded with the
+ * same path and query string to the route's uri. Routes are tried in
+ * order; an empty methods list allows every method. GET responses of a
+ * route with a cache-ttl are cached by the gateway.
+ */
+@ConfigurationProperties("gateway")
+public record GatewayProperties(List<Route> routes, Duration connectTimeout, Duration responseTimeout, Cache cache) {
+
+    public GatewayProperties {
+        routes = routes != null ? List.copyOf(routes) : List.of();
+        connectTimeout = connectTimeout != null ? connectTimeout : Duration.ofSeconds(2);
+        responseTimeout = responseTimeout != null ? responseTimeout : Duration.ofSeconds(30);
+        cache = cache != null ? cache : new Cache(null, null);
+    }
+
+    /**
+     * cacheTtl: how long a cached 200 response is served as fresh (no caching when unset).
+     * staleWhileRevalidate: how much longer it may be served while a background request refreshes it.
+     */
+    public record Route(String id, String path, String uri, List<String> methods,
+                        Duration cacheTtl, Duration staleWhileRevalidate) {
+
+        public Route {
+            methods = methods != null ? List.copyOf(methods) : List.of();
+            staleWhileRevalidate = staleWhileRevalidate != null ? staleWhileRevalidate : Duration.ZERO;
+        }
+    }
+
+    /** Total size of all cached bodies, and the largest body that is cached at all. */
+    public record Cache(DataSize maxSize, DataSize maxEntrySize) {
+
+        public Cache {
+            maxSize = maxSize != null ? maxSize : DataSize.ofMegabytes(16);
+            maxEntrySize = maxEntrySize != null ? maxEntrySize : DataSize.ofMegabytes(1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.gatewayservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+
+@Configuration
+@EnableConfigurationProperties(GatewayProperties.class)
+public class HttpClientConfig {
+
+    // One pooled client for all routes; the backends speak plain HTTP/1.1
+    @Bean
+    public HttpClient backendHttpClient(GatewayProperties properties) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+}
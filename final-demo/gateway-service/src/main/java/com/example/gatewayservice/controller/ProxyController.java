@@ -0,0 +1,28 @@
+package com.example.gatewayservice.controller;
+
+import com.example.gatewayservice.proxy.GatewayProxy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Single entry point for all /api requests; routing is configured under
+ * gateway.routes and done by {@link GatewayProxy}.
+ */
+@RestController
+public class ProxyController {
+
+    private final GatewayProxy gatewayProxy;
+
+    public ProxyController(GatewayProxy gatewayProxy) {
+        this.gatewayProxy = gatewayProxy;
+    }
+
+    @RequestMapping("/api/**")
+    public void proxy(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        gatewayProxy.forward(request, response);
+    }
+}
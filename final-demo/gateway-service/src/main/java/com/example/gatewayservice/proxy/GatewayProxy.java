@@ -0,0 +1,281 @@
+package com.example.gatewayservice.proxy;
+
+import com.example.gatewayservice.config.GatewayProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Forwards requests to the backend of the first matching
+ * {@link GatewayProperties.Route}.
+ *
+ * Neither body is buffered: the client's request body is streamed into the
+ * backend request, and the backend's response body is copied to the servlet
+ * output stream as it arrives. The copy blocks the request thread, which is
+ * cheap with spring.threads.virtual.enabled=true, so concurrent proxied
+ * requests are then not limited by the Tomcat thread pool.
+ *
+ * GET requests to a route with a cache-ttl go through the
+ * {@link ResponseCache} instead: a 200 body is read whole (up to
+ * gateway.cache.max-entry-size), cached with an ETag, and answered with
+ * 304 Not Modified when the client's If-None-Match already has it.
+ *
+ * The raw request path is forwarded as it is, so paths that a backend could
+ * resolve differently from the route match are rejected with 400 first:
+ * empty, "." and ".." segments, path parameters, backslashes and encoded
+ * dots, slashes, backslashes or percent signs.
+ */
+@Component
+public class GatewayProxy {
+
+    // Hop-by-hop headers, plus those HttpClient sets itself and refuses to take
+    private static final Set<String> SKIPPED_REQUEST_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authorization", "proxy-connection", "te", "trailer",
+            "transfer-encoding", "upgrade", "host", "content-length", "expect", "date", "from", "via",
+            "warning", "origin");
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-connection", "te", "trailer",
+            "transfer-encoding", "upgrade");
+    // Cached bodies must be identity-encoded, and the gateway answers conditionals itself
+    private static final Set<String> SKIPPED_CACHED_REQUEST_HEADERS = Set.of(
+            "accept-encoding", "if-none-match", "if-modified-since", "if-match", "if-unmodified-since", "range",
+            "if-range", "cache-control", "pragma");
+    private static final List<String> REJECTED_ENCODINGS = List.of("%2e", "%2f", "%5c", "%25");
+
+    private final HttpClient backendHttpClient;
+    private final ResponseCache responseCache;
+    private final Duration responseTimeout;
+    private final List<CompiledRoute> routes;
+
+    public GatewayProxy(HttpClient backendHttpClient, ResponseCache responseCache, GatewayProperties properties) {
+        this.backendHttpClient = backendHttpClient;
+        this.responseCache = responseCache;
+        this.responseTimeout = properties.responseTimeout();
+        this.routes = properties.routes().stream().map(CompiledRoute::of).toList();
+    }
+
+    public void forward(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI();
+        if (!isNormalized(path)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        CompiledRoute route = find(path);
+        if (route == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!route.allows(request.getMethod())) {
+            response.setHeader("Allow", String.join(", ", route.methods()));
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        if (route.cached() && "GET".equals(request.getMethod())) {
+            forwardCached(route, request, response);
+            return;
+        }
+
+        HttpResponse<InputStream> backendResponse = send(route, backendRequest(route, request, false), response);
+        if (backendResponse == null) {
+            return;
+        }
+        copyStatusAndHeaders(backendResponse, response);
+        try (InputStream body = backendResponse.body()) {
+            body.transferTo(response.getOutputStream());
+        }
+    }
+
+    /** True for backend response headers that are passed on to the client. */
+    static boolean isForwardedResponseHeader(String lowerCaseName) {
+        // CORS is answered by the gateway itself (CorsConfig)
+        return !SKIPPED_RESPONSE_HEADERS.contains(lowerCaseName) && !lowerCaseName.startsWith("access-control-");
+    }
+
+    /** True if the raw path has no segments or encodings that could step outside the matched route. */
+    static boolean isNormalized(String path) {
+        if (!path.startsWith("/") || path.indexOf('\\') >= 0 || path.indexOf(';') >= 0) {
+            return false;
+        }
+        String lower = path.toLowerCase(Locale.ROOT);
+        for (String encoding : REJECTED_ENCODINGS) {
+            if (lower.contains(encoding)) {
+                return false;
+            }
+        }
+        for (String segment : path.substring(1).split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void forwardCached(CompiledRoute route, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String query = request.getQueryString();
+        String key = request.getRequestURI() + (query != null ? "?" + query : "");
+
+        ResponseCache.CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            if (cached.isFresh()) {
+                writeCached(request, response, cached, "HIT");
+            } else {
+                responseCache.refresh(key, backendRequest(route, request, true), route.config());
+                writeCached(request, response, cached, "STALE");
+            }
+            return;
+        }
+
+        HttpResponse<InputStream> backendResponse = send(route, backendRequest(route, request, true), response);
+        if (backendResponse == null) {
+            return;
+        }
+        try (InputStream body = backendResponse.body()) {
+            if (backendResponse.statusCode() == HttpServletResponse.SC_OK) {
+                int limit = responseCache.maxEntryBytes();
+                byte[] head = body.readNBytes(limit + 1);
+                if (head.length <= limit) {
+                    writeCached(request, response,
+                            responseCache.put(key, backendResponse.headers(), head, route.config()), "MISS");
+                    return;
+                }
+                // Too large to cache: send what was read and stream the rest
+                copyStatusAndHeaders(backendResponse, response);
+                response.getOutputStream().write(head);
+            } else {
+                copyStatusAndHeaders(backendResponse, response);
+            }
+            body.transferTo(response.getOutputStream());
+        }
+    }
+
+    private static void writeCached(HttpServletRequest request, HttpServletResponse response,
+                                    ResponseCache.CachedResponse cached, String cacheStatus) throws IOException {
+        response.setHeader("ETag", cached.etag());
+        // Browsers keep the body but revalidate every time, so polling gets 304s until it changes
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Age", Long.toString(cached.ageSeconds()));
+        response.setHeader("X-Cache", cacheStatus);
+        if (ResponseCache.matches(request.getHeader("If-None-Match"), cached.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        cached.headers().forEach(header -> response.addHeader(header.name(), header.value()));
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    // The backend response, or null after answering 503 because the backend could not be reached
+    private HttpResponse<InputStream> send(CompiledRoute route, HttpRequest backendRequest, HttpServletResponse response)
+            throws IOException {
+        try {
+            return backendHttpClient.send(backendRequest, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            unavailable(response, route, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unavailable(response, route, e);
+        }
+        return null;
+    }
+
+    private static void copyStatusAndHeaders(HttpResponse<InputStream> backendResponse, HttpServletResponse response) {
+        response.setStatus(backendResponse.statusCode());
+        backendResponse.headers().map().forEach((name, values) -> {
+            if (isForwardedResponseHeader(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+    }
+
+    private HttpRequest backendRequest(CompiledRoute route, HttpServletRequest request, boolean cached) {
+        String query = request.getQueryString();
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(route.uri() + request.getRequestURI() + (query != null ? "?" + query : "")))
+                .timeout(responseTimeout);
+
+        for (String name : Collections.list(request.getHeaderNames())) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!SKIPPED_REQUEST_HEADERS.contains(lower) && !(cached && SKIPPED_CACHED_REQUEST_HEADERS.contains(lower))) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    builder.header(name, value);
+                }
+            }
+        }
+
+        long contentLength = request.getContentLengthLong();
+        boolean chunked = request.getHeader("Transfer-Encoding") != null;
+        HttpRequest.BodyPublisher body;
+        if (contentLength > 0) {
+            body = HttpRequest.BodyPublishers.fromPublisher(
+                    HttpRequest.BodyPublishers.ofInputStream(() -> requestBody(request)), contentLength);
+        } else if (chunked) {
+            body = HttpRequest.BodyPublishers.ofInputStream(() -> requestBody(request));
+        } else {
+            body = HttpRequest.BodyPublishers.noBody();
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    private CompiledRoute find(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (CompiledRoute route : routes) {
+            if (route.pattern().matches(container)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static InputStream requestBody(HttpServletRequest request) {
+        try {
+            return request.getInputStream();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read request body", e);
+        }
+    }
+
+    private static void unavailable(HttpServletResponse response, CompiledRoute route, Exception e) throws IOException {
+        String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setContentType("application/json");
+        response.getOutputStream().write(("{\"message\":\"" + route.id() + " service unavailable: " +
+                reason.replace("\\", "/").replace("\"", "'") + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record CompiledRoute(String id, PathPattern pattern, String uri, List<String> methods,
+                                 GatewayProperties.Route config) {
+
+        static CompiledRoute of(GatewayProperties.Route route) {
+            String uri = route.uri().endsWith("/") ? route.uri().substring(0, route.uri().length() - 1) : route.uri();
+            List<String> methods = route.methods().stream().map(m -> m.toUpperCase(Locale.ROOT)).toList();
+            return new CompiledRoute(route.id(), PathPatternParser.defaultInstance.parse(route.path()), uri, methods, route);
+        }
+
+        boolean allows(String method) {
+            return methods.isEmpty() || methods.contains(method);
+        }
+
+        boolean cached() {
+            return config.cacheTtl() != null && !config.cacheTtl().isZero();
+        }
+    }
+}
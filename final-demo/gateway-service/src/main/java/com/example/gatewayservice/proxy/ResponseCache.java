@@ -0,0 +1,157 @@
+package com.example.gatewayservice.proxy;
+
+import com.example.gatewayservice.config.GatewayProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached 200 responses of GET requests, keyed by path and query string.
+ *
+ * Each entry carries a strong ETag (SHA-256 of the body) and is fresh for
+ * its route's cache-ttl. After that it is still served for
+ * stale-while-revalidate while one asynchronous backend request per key
+ * replaces it, and is then evicted. The cache is bounded by the total
+ * size of the cached bodies.
+ */
+@Component
+public class ResponseCache {
+
+    private final HttpClient backendHttpClient;
+    private final Cache<String, CachedResponse> cache;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final int maxEntryBytes;
+
+    public ResponseCache(HttpClient backendHttpClient, GatewayProperties properties) {
+        this.backendHttpClient = backendHttpClient;
+        this.maxEntryBytes = (int) Math.min(properties.cache().maxEntrySize().toBytes(), Integer.MAX_VALUE - 1);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.cache().maxSize().toBytes())
+                .weigher((String key, CachedResponse entry) -> key.length() + entry.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse entry, long currentTime) {
+                        return entry.lifetimeNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse entry, long currentTime, long currentDuration) {
+                        return entry.lifetimeNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /** Bodies larger than this are passed through without being cached. */
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public CachedResponse put(String key, HttpHeaders headers, byte[] body, GatewayProperties.Route route) {
+        CachedResponse entry = CachedResponse.of(headers, body, route);
+        cache.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Replaces a stale entry in the background, unless a refresh of the key
+     * is already running. A failed refresh leaves the entry as it is.
+     */
+    public void refresh(String key, HttpRequest request, GatewayProperties.Route route) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        backendHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    try {
+                        if (error == null && response.statusCode() == 200 && response.body().length <= maxEntryBytes) {
+                            put(key, response.headers(), response.body(), route);
+                        }
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+    }
+
+    /** True if an If-None-Match header value lists this ETag (or is "*"). */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses the weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record Header(String name, String value) {
+    }
+
+    public record CachedResponse(List<Header> headers, byte[] body, String etag,
+                                 long storedAtNanos, long freshNanos, long lifetimeNanos) {
+
+        static CachedResponse of(HttpHeaders headers, byte[] body, GatewayProperties.Route route) {
+            List<Header> kept = new ArrayList<>();
+            headers.map().forEach((name, values) -> {
+                String lower = name.toLowerCase(Locale.ROOT);
+                // Content-Length is set from the body; validators are the gateway's own
+                if (GatewayProxy.isForwardedResponseHeader(lower) && !lower.equals("content-length")
+                        && !lower.equals("etag") && !lower.equals("last-modified") && !lower.equals("cache-control")) {
+                    values.forEach(value -> kept.add(new Header(name, value)));
+                }
+            });
+            Duration fresh = route.cacheTtl();
+            Duration lifetime = fresh.plus(route.staleWhileRevalidate());
+            return new CachedResponse(List.copyOf(kept), body, etag(body), System.nanoTime(),
+                    fresh.toNanos(), lifetime.toNanos());
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - storedAtNanos < freshNanos;
+        }
+
+        public long ageSeconds() {
+            return Duration.ofNanos(System.nanoTime() - storedAtNanos).toSeconds();
+        }
+
+        private static String etag(byte[] body) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+                return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
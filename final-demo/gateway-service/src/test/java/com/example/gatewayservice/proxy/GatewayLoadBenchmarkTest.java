@@ -0,0 +1,153 @@
+package com.example.gatewayservice.proxy;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Up to 1,000 concurrent clients through the proxy against a stub backend
+ * that takes 200 ms per request. Tomcat's pool is cut to 20 threads, so
+ * it, rather than the CPU, is the limit with platform threads (at most
+ * 100 req/s). Reports throughput, latency and the most requests the
+ * backend saw in flight at once.
+ *
+ * Platform threads:
+ *   mvn test -Dbenchmark=true -Dtest=GatewayLoadBenchmarkTest
+ * Virtual threads (Java 21+):
+ *   mvn test -Dbenchmark=true -Dtest=GatewayLoadBenchmarkTest -Dspring.threads.virtual.enabled=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=20",
+        "server.tomcat.accept-count=10000",
+        "server.tomcat.max-connections=20000"
+})
+class GatewayLoadBenchmarkTest {
+
+    private static final int[] CLIENTS = {100, 500, 1000};
+    private static final long BACKEND_DELAY_MS = 200;
+    private static final byte[] BODY = "{\"orders\":[],\"nextCursor\":null}".getBytes(StandardCharsets.UTF_8);
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+    private static HttpServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    @DynamicPropertySource
+    static void backendUrl(DynamicPropertyRegistry registry) {
+        try {
+            backend = HttpServer.create(new InetSocketAddress("localhost", 0), 10_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        backend.setExecutor(Executors.newCachedThreadPool());
+        backend.createContext("/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(BACKEND_DELAY_MS);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, BODY.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(BODY);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        backend.start();
+        registry.add("services.order.url", () -> "http://localhost:" + backend.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @Test
+    void concurrencyBeyondTheTomcatPool() throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        System.out.printf("%-9s %8s %10s %10s %10s %14s%n",
+                "threads", "clients", "req/s", "p50 (ms)", "p99 (ms)", "backend peak");
+        run(100);   // warm-up
+        for (int clients : CLIENTS) {
+            maxInFlight.set(0);
+            long started = System.nanoTime();
+            long[] nanos = run(clients);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Arrays.sort(nanos);
+            System.out.printf("%-9s %8d %10.0f %10.1f %10.1f %14d%n", mode, clients, clients / seconds,
+                    nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, maxInFlight.get());
+        }
+    }
+
+    private long[] run(int clients) throws Exception {
+        long[] nanos = new long[clients];
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/orders"))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    nanos[client] = System.nanoTime() - begin;
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return nanos;
+    }
+}
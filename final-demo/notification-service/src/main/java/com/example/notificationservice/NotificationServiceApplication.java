@@ -1,7 +1,10 @@
 package com.example.notificationservice;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.notificationservice.event.OrderEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -9,23 +12,27 @@ import org.springframework.kafka.annotation.KafkaListener;
 @SpringBootApplication
 public class NotificationServiceApplication {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Built once and shared: ObjectReader is immutable and thread-safe
+    private final ObjectReader orderEventReader = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .readerFor(OrderEvent.class);
 
     @KafkaListener(topics = "order-events", groupId = "order-notification-group")
     public void handleOrderEvent(String event) {
         try {
-            JsonNode json = objectMapper.readTree(event);
+            OrderEvent order = orderEventReader.readValue(event);
             System.out.println("========================================");
             System.out.println("   ORDER NOTIFICATION RECEIVED");
             System.out.println("========================================");
-            System.out.println("   Order ID    : " + json.get("orderId").asText());
-            System.out.println("   Customer    : " + json.get("customerName").asText());
-            System.out.println("   Email       : " + json.get("customerEmail").asText());
-            System.out.println("   Total       : $" + json.get("totalAmount").asText());
-            System.out.println("   Items       : " + json.get("itemCount").asText());
-            System.out.println("   Status      : " + json.get("status").asText());
+            System.out.println("   Order ID    : " + order.orderId());
+            System.out.println("   Customer    : " + order.customerName());
+            System.out.println("   Email       : " + order.customerEmail());
+            System.out.println("   Total       : $" + order.totalAmount());
+            System.out.println("   Items       : " + order.itemCount());
+            System.out.println("   Status      : " + order.status());
             System.out.println("========================================");
-            System.out.println("   Email notification sent to " + json.get("customerEmail").asText());
+            System.out.println("   Email notification sent to " + order.customerEmail());
             System.out.println("========================================");
         } catch (Exception e) {
             System.out.println("Received order event: " + event);
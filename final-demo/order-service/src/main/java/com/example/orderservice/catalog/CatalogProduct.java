@@ -0,0 +1,11 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.money.Money;
+
+/**
+ * Immutable copy of a PRODUCT row as held by {@link ProductCatalog}.
+ * Serializes to the same JSON as the Product entity.
+ */
+public record CatalogProduct(Long id, String name, String category, String brand,
+                             Money price, String description, boolean active) {
+}
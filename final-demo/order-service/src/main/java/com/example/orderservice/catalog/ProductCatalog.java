@@ -0,0 +1,160 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of the product catalog.
+ *
+ * Holds an immutable id -> {@link CatalogProduct} snapshot plus the
+ * pre-serialized JSON of the full list. Rows are read with a constructor
+ * projection, so no managed Product entity is cached or handed out and
+ * nothing is added to the caller's persistence context. The snapshot is
+ * replaced as a whole: readers always see one consistent version. Products
+ * found in H2 but not in the snapshot are merged into a copy of it, and
+ * writes to PRODUCT (see {@link ProductChangeListener}) drop it so the next
+ * read reloads from H2.
+ *
+ * product.catalog.lookups counts one lookup per requested id (one per
+ * getAllAsJson call): a hit when the snapshot already held it, a miss when
+ * it had to be read from H2.
+ */
+@Component
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Snapshot snapshot;
+
+    public ProductCatalog(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+
+        FunctionCounter.builder("product.catalog.lookups", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("product.catalog.lookups", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("product.catalog.size", this, catalog -> {
+                    Snapshot current = catalog.snapshot;
+                    return current != null ? current.byId().size() : 0;
+                })
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Snapshot loaded = currentSnapshot().snapshot();
+        System.out.println("Product catalog loaded: " + loaded.byId().size() + " products");
+    }
+
+    public CatalogProduct get(Long id) {
+        return getAll(List.of(id)).get(id);
+    }
+
+    public Map<Long, CatalogProduct> getAll(Collection<Long> ids) {
+        Lookup lookup = currentSnapshot();
+        Snapshot current = lookup.snapshot();
+        Map<Long, CatalogProduct> result = new HashMap<>();
+        List<Long> missing = null;
+
+        for (Long id : ids) {
+            CatalogProduct product = current.byId().get(id);
+            if (product != null) {
+                result.put(id, product);
+            } else if (!lookup.loaded()) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(id);
+            }
+        }
+
+        if (lookup.loaded()) {
+            // Everything came from H2 just now; ids it did not have do not exist
+            misses.add(ids.size());
+            return result;
+        }
+        hits.add(result.size());
+
+        if (missing != null) {
+            misses.add(missing.size());
+            // Not in the snapshot - they may have been inserted since it was taken
+            List<CatalogProduct> loaded = productRepository.findForCatalogByIdIn(missing);
+            if (!loaded.isEmpty()) {
+                loaded.forEach(p -> result.put(p.id(), p));
+                merge(current, loaded);
+            }
+        }
+        return result;
+    }
+
+    public byte[] getAllAsJson() {
+        Lookup lookup = currentSnapshot();
+        (lookup.loaded() ? misses : hits).increment();
+        return lookup.snapshot().json();
+    }
+
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    private Lookup currentSnapshot() {
+        Snapshot current = snapshot;
+        return current != null ? new Lookup(current, false) : load();
+    }
+
+    private synchronized Lookup load() {
+        if (snapshot != null) {
+            return new Lookup(snapshot, false);
+        }
+        snapshot = snapshotOf(productRepository.findAllForCatalog());
+        return new Lookup(snapshot, true);
+    }
+
+    // Only onto the snapshot the rows were missing from: if it has been dropped
+    // or replaced meanwhile, the rows may be older than what replaced it
+    private synchronized void merge(Snapshot base, List<CatalogProduct> loaded) {
+        if (snapshot != base) {
+            return;
+        }
+        List<CatalogProduct> products = new ArrayList<>(base.byId().values());
+        products.addAll(loaded);
+        snapshot = snapshotOf(products);
+    }
+
+    private Snapshot snapshotOf(Collection<CatalogProduct> products) {
+        Map<Long, CatalogProduct> byId = new TreeMap<>();
+        products.forEach(p -> byId.put(p.id(), p));
+        try {
+            return new Snapshot(Collections.unmodifiableMap(byId), objectMapper.writeValueAsBytes(byId.values()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize product catalog", e);
+        }
+    }
+
+    private record Snapshot(Map<Long, CatalogProduct> byId, byte[] json) {
+    }
+
+    private record Lookup(Snapshot snapshot, boolean loaded) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that drops the {@link ProductCatalog} snapshot whenever
+ * a product is written. Inside a transaction the invalidation is deferred
+ * until commit so concurrent readers cannot reload uncommitted state.
+ */
+public class ProductChangeListener {
+
+    private final ObjectProvider<ProductCatalog> productCatalog;
+
+    public ProductChangeListener(ObjectProvider<ProductCatalog> productCatalog) {
+        this.productCatalog = productCatalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Product product) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    productCatalog.ifAvailable(ProductCatalog::invalidate);
+                }
+            });
+        } else {
+            productCatalog.ifAvailable(ProductCatalog::invalidate);
+        }
+    }
+}
@@ -1,44 +1,63 @@
 package com.example.orderservice.client;
 
+import com.example.orderservice.exception.IdempotencyConflictException;
+import com.example.orderservice.exception.InsufficientBalanceException;
 import com.example.orderservice.exception.ResourceNotFoundException;
+import com.example.orderservice.money.Money;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Component
 public class AccountsClient {
 
+    // "code" of accounts-service's 400 response when the balance does not cover the debit
+    private static final String INSUFFICIENT_BALANCE = "INSUFFICIENT_BALANCE";
+
     private final RestClient restClient;
 
     public AccountsClient(RestClient accountsRestClient) {
         this.restClient = accountsRestClient;
     }
 
+    /**
+     * Debits the account only if the balance covers the amount, in a single
+     * round trip. Safe to retry: accounts-service applies each idempotency
+     * key at most once and replays the original result for repeats.
+     */
     @SuppressWarnings("unchecked")
-    public Map<String, Object> checkBalance(String email, double amount) {
+    public Map<String, Object> reserve(String email, Money amount, Long orderId, String idempotencyKey) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("idempotencyKey", idempotencyKey);
+        request.put("amount", amount);
+        request.put("orderId", orderId);
         try {
-            return restClient.get()
-                    .uri("/api/v1/accounts/{email}/check?amount={amount}", email, amount)
+            return restClient.post()
+                    .uri("/api/v1/accounts/{email}/reserve", email)
+                    .body(request)
                     .retrieve()
                     .body(Map.class);
         } catch (HttpClientErrorException.NotFound e) {
             throw new ResourceNotFoundException("No account found for email: " + email + ". Please use a registered email.");
+        } catch (HttpClientErrorException.BadRequest e) {
+            Map<String, Object> error = e.getResponseBodyAs(Map.class);
+            if (error == null || !INSUFFICIENT_BALANCE.equals(error.get("code"))) {
+                // Any other 400 means this request was malformed - not the customer's fault
+                throw e;
+            }
+            Object message = error.get("message");
+            throw new InsufficientBalanceException(message != null
+                    ? message.toString()
+                    : "Insufficient balance for " + email);
+        } catch (HttpClientErrorException.Conflict e) {
+            Map<String, Object> error = e.getResponseBodyAs(Map.class);
+            Object message = error != null ? error.get("message") : null;
+            throw new IdempotencyConflictException(message != null
+                    ? message.toString()
+                    : "Idempotency key " + idempotencyKey + " was already used for a different debit");
         }
     }
-
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> debit(String email, double amount, Long orderId) {
-        Map<String, Object> request = Map.of(
-                "email", email,
-                "amount", amount,
-                "orderId", orderId
-        );
-        return restClient.post()
-                .uri("/api/v1/accounts/{email}/debit", email)
-                .body(request)
-                .retrieve()
-                .body(Map.class);
-    }
 }
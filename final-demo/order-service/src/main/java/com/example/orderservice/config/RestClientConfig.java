@@ -1,20 +1,98 @@
 package com.example.orderservice.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestClientConfig {
 
     @Value("${accounts.service.url}")
     private String accountsServiceUrl;
 
+    @Value("${accounts.client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${accounts.client.max-connections-per-route:200}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${accounts.client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${accounts.client.connection-request-timeout:2s}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${accounts.client.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${accounts.client.idle-timeout:30s}")
+    private Duration idleTimeout;
+
+    @Value("${accounts.client.connection-ttl:5m}")
+    private Duration connectionTtl;
+
+    @Value("${accounts.client.http2:false}")
+    private boolean http2;
+
     @Bean
     public RestClient accountsRestClient() {
-        return RestClient.builder()
+        RestClient.Builder builder = RestClient.builder()
                 .baseUrl(accountsServiceUrl)
+                .requestFactory(accountsRequestFactory());
+        if (http2) {
+            // One connection: max-connections-per-route becomes the number of streams in flight
+            builder.requestInterceptor(new StreamLimitingInterceptor(maxConnectionsPerRoute, connectionRequestTimeout));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory accountsRequestFactory() {
+        if (http2) {
+            // h2c: every order multiplexes over one upgraded connection to accounts-service
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout)
+                    .build();
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(readTimeout);
+            return requestFactory;
+        }
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTtl.toMillis()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeout.toMillis()))
                 .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
     }
 }
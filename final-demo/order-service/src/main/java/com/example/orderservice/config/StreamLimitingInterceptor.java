@@ -0,0 +1,97 @@
+package com.example.orderservice.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the requests in flight over the h2c connection to accounts-service.
+ *
+ * The JDK HttpClient fails a request outright when the server's
+ * max-concurrent-streams is reached, so a request first waits up to the
+ * connection request timeout for one of the permits, as it would for a
+ * pooled connection in HTTP/1.1 mode. The permit is returned when the
+ * response is closed.
+ */
+class StreamLimitingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Semaphore streams;
+    private final Duration acquireTimeout;
+
+    StreamLimitingInterceptor(int maxStreams, Duration acquireTimeout) {
+        this.streams = new Semaphore(maxStreams);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        try {
+            if (!streams.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("No free HTTP/2 stream to " + request.getURI().getAuthority() +
+                        " within " + acquireTimeout.toMillis() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an HTTP/2 stream");
+        }
+        try {
+            return new PermitReleasingResponse(execution.execute(request, body));
+        } catch (IOException | RuntimeException e) {
+            streams.release();
+            throw e;
+        }
+    }
+
+    private final class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingResponse(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    streams.release();
+                }
+            }
+        }
+    }
+}
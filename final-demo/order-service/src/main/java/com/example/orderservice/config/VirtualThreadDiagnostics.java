@@ -0,0 +1,63 @@
+package com.example.orderservice.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Logs virtual threads that pin their carrier while the opt-in
+ * virtual-thread mode is active (spring.threads.virtual.enabled=true on
+ * Java 21+).
+ *
+ * Tomcat requests, accounts-service calls and the outbox relay run on
+ * virtual threads here. A JFR stream reports every jdk.VirtualThreadPinned
+ * event - a virtual thread that blocked for 20 ms or more without
+ * unmounting, e.g. inside a synchronized block - with the application
+ * frame it blocked in.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadDiagnostics {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    private RecordingStream pinnedEvents;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        pinnedEvents = new RecordingStream();
+        // The JDK's own default threshold for this event
+        pinnedEvents.enable(PINNED).withThreshold(Duration.ofMillis(20)).withStackTrace();
+        pinnedEvents.onEvent(PINNED, VirtualThreadDiagnostics::report);
+        pinnedEvents.startAsync();
+        System.out.println("Virtual threads: logging carrier pinning of 20 ms or more");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pinnedEvents != null) {
+            pinnedEvents.close();
+        }
+    }
+
+    private static void report(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String where = frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith("com.example."))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() +
+                        ":" + frame.getLineNumber())
+                .orElse("unknown frame");
+        System.out.println("Virtual thread pinned its carrier for " + event.getDuration().toMillis() + " ms in " + where);
+    }
+}
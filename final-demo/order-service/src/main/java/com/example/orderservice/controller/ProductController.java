@@ -1,26 +1,26 @@
 package com.example.orderservice.controller;
 
-import com.example.orderservice.entity.Product;
-import com.example.orderservice.repository.ProductRepository;
+import com.example.orderservice.catalog.ProductCatalog;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/products")
 public class ProductController {
 
-    private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
 
-    public ProductController(ProductRepository productRepository) {
-        this.productRepository = productRepository;
+    public ProductController(ProductCatalog productCatalog) {
+        this.productCatalog = productCatalog;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productRepository.findAll());
+    public ResponseEntity<byte[]> getAllProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productCatalog.getAllAsJson());
     }
 }
@@ -0,0 +1,13 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class OrderPageDto {
+    private List<OrderResponseDto> orders;
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.example.orderservice.dto;
 
+import com.example.orderservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -14,7 +15,7 @@ public class OrderResponseDto {
     private String customerEmail;
     private LocalDateTime orderDate;
     private String status;
-    private double totalAmount;
+    private Money totalAmount;
     private List<OrderItemResponseDto> items;
 
     @Data
@@ -24,7 +25,7 @@ public class OrderResponseDto {
         private Long productId;
         private String productName;
         private int quantity;
-        private double unitPrice;
-        private double lineTotal;
+        private Money unitPrice;
+        private Money lineTotal;
     }
 }
@@ -1,7 +1,9 @@
 package com.example.orderservice.entity;
 
+import com.example.orderservice.money.Money;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -10,21 +12,30 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+        indexes = @Index(name = "idx_orders_order_date_id", columnList = "order_date DESC, id DESC"))
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     private String customerName;
     private String customerEmail;
 
     @CreationTimestamp
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
 
     private String status;
-    private double totalAmount;
+    @Column(precision = 19, scale = 2)
+    private Money totalAmount;
 
+    @Column(unique = true)
+    private String idempotencyKey;
+
+    // Items of a whole page of orders are loaded with one IN query
+    @BatchSize(size = 200)
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 }
@@ -1,5 +1,6 @@
 package com.example.orderservice.entity;
 
+import com.example.orderservice.money.Money;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -9,7 +10,8 @@ import lombok.Data;
 @Table(name = "order_items")
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -20,6 +22,9 @@ public class OrderItem {
     private Long productId;
     private String productName;
     private int quantity;
-    private double unitPrice;
-    private double lineTotal;
+    @Column(precision = 19, scale = 2)
+    private Money unitPrice;
+
+    @Column(precision = 19, scale = 2)
+    private Money lineTotal;
 }
@@ -1,18 +1,24 @@
 package com.example.orderservice.entity;
 
+import com.example.orderservice.catalog.ProductChangeListener;
+import com.example.orderservice.money.Money;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import lombok.Data;
 
 @Data
 @Entity
+@EntityListeners(ProductChangeListener.class)
 public class Product {
     @Id
     private Long id;
     private String name;
     private String category;
     private String brand;
-    private double price;
+    @Column(precision = 19, scale = 2)
+    private Money price;
     private String description;
     private boolean active;
 }
@@ -1,5 +1,6 @@
 package com.example.orderservice.event;
 
+import com.example.orderservice.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,7 +17,7 @@ public class OrderEvent {
     private String customerEmail;
     private LocalDateTime orderDate;
     private String status;
-    private double totalAmount;
+    private Money totalAmount;
     private int itemCount;
     private List<OrderItemEvent> items;
 
@@ -29,7 +30,7 @@ public class OrderEvent {
         private String category;
         private String brand;
         private int quantity;
-        private double unitPrice;
-        private double lineTotal;
+        private Money unitPrice;
+        private Money lineTotal;
     }
 }
@@ -1,30 +1,48 @@
 package com.example.orderservice.event;
 
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Transactional-outbox side of order event publishing.
+ *
+ * The event is stored in OUTBOX_EVENTS as part of the caller's transaction,
+ * so it is committed if and only if the order is. {@link OutboxRelay}
+ * delivers it to Kafka afterwards, off the request path.
+ */
 @Component
 public class OrderEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    public static final String TOPIC = "order-events";
+
+    private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
 
-    public OrderEventPublisher(KafkaTemplate<String, String> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public OrderEventPublisher(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publish(OrderEvent event) {
+        String json;
         try {
-            String json = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("order-events", String.valueOf(event.getOrderId()), json);
-            System.out.println("Published order event to Kafka: orderId=" + event.getOrderId());
+            json = objectMapper.writeValueAsString(event);
         } catch (JsonProcessingException e) {
-            System.err.println("Failed to serialize order event: " + e.getMessage());
+            throw new IllegalStateException("Failed to serialize order event: " + e.getMessage(), e);
         }
+
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(TOPIC);
+        outboxEvent.setMessageKey(String.valueOf(event.getOrderId()));
+        outboxEvent.setPayload(json);
+        outboxEventRepository.save(outboxEvent);
     }
 }
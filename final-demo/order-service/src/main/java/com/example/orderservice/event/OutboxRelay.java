@@ -0,0 +1,88 @@
+package com.example.orderservice.event;
+
+import com.example.orderservice.entity.OutboxEvent;
+import com.example.orderservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains OUTBOX_EVENTS to Kafka in batches.
+ *
+ * A whole batch is handed to the producer before waiting for acks, so
+ * linger.ms / batch.size can group the records into few broker requests.
+ * Rows are deleted only once their send is acknowledged; anything that
+ * fails stays in the table and is retried on the next run (at-least-once).
+ */
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:125000}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, String> kafkaTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || relayBatch(batch) < batch.size()) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private int relayBatch(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                futures.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+            } catch (RuntimeException e) {
+                // e.g. the producer could not be created; the row stays and is retried
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<Long> delivered = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                delivered.add(event.getId());
+            } catch (ExecutionException | TimeoutException e) {
+                System.err.println("Failed to publish outbox event " + event.getId() +
+                        " (key=" + event.getMessageKey() + "), will retry: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(delivered);
+            System.out.println("Published " + delivered.size() + " order event(s) to Kafka");
+        }
+        return delivered.size();
+    }
+}
@@ -1,10 +1,27 @@
 package com.example.orderservice.repository;
 
 import com.example.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findAllByOrderByOrderDateDesc();
+
+    @Query("SELECT o FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findFirstPage(Pageable pageable);
+
+    // Keyset: resume strictly after (orderDate, id) of the previous page's last row
+    @Query("SELECT o FROM Order o " +
+            "WHERE o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id) " +
+            "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("orderDate") LocalDateTime orderDate,
+                              @Param("id") Long id,
+                              Pageable pageable);
+
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
 }
@@ -1,7 +1,24 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.catalog.CatalogProduct;
 import com.example.orderservice.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    // Constructor projections: plain values, nothing enters the caller's persistence context
+    @Query("SELECT new com.example.orderservice.catalog.CatalogProduct(" +
+            "p.id, p.name, p.category, p.brand, p.price, p.description, p.active) " +
+            "FROM Product p ORDER BY p.id")
+    List<CatalogProduct> findAllForCatalog();
+
+    @Query("SELECT new com.example.orderservice.catalog.CatalogProduct(" +
+            "p.id, p.name, p.category, p.brand, p.price, p.description, p.active) " +
+            "FROM Product p WHERE p.id IN :ids")
+    List<CatalogProduct> findForCatalogByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,130 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.money.Money;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Streams orders as NDJSON (one order per line, items embedded).
+ *
+ * Rows are pulled through a forward-only cursor ordered by order id and
+ * written to the response as they arrive, so only the current row is held
+ * in memory regardless of how many orders are exported.
+ */
+@Service
+public class OrderExportService {
+
+    public static final int MAX_FETCH_SIZE = 10_000;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String EXPORT_SQL =
+            "SELECT o.id, o.customer_name, o.customer_email, o.order_date, o.status, o.total_amount, " +
+            "i.id AS item_id, i.product_id, i.product_name, i.quantity, i.unit_price, i.line_total " +
+            "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id " +
+            "WHERE o.order_date >= ? " +
+            "ORDER BY o.id, i.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+
+    public OrderExportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = new JsonFactory();
+        this.jsonFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public void export(LocalDateTime since, int fetchSize, OutputStream out) throws IOException {
+        int rowsPerFetch = Math.min(Math.max(fetchSize, 1), MAX_FETCH_SIZE);
+        Timestamp from = Timestamp.valueOf(since != null ? since : EPOCH);
+
+        try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            // Lines are separated by '\n' below, not by Jackson's default root separator
+            json.setRootValueSeparator(null);
+            NdjsonOrderWriter writer = new NdjsonOrderWriter(json);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(rowsPerFetch);
+                ps.setTimestamp(1, from);
+                return ps;
+            }, writer);
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Joined rows arrive grouped by order id; an order's line is closed when the next id starts
+    private static class NdjsonOrderWriter implements RowCallbackHandler {
+
+        private final JsonGenerator json;
+        private long currentOrderId = -1;
+
+        NdjsonOrderWriter(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long orderId = rs.getLong("id");
+                if (orderId != currentOrderId) {
+                    finish();
+                    currentOrderId = orderId;
+                    json.writeStartObject();
+                    json.writeNumberField("id", orderId);
+                    json.writeStringField("customerName", rs.getString("customer_name"));
+                    json.writeStringField("customerEmail", rs.getString("customer_email"));
+                    Timestamp orderDate = rs.getTimestamp("order_date");
+                    json.writeStringField("orderDate", orderDate != null ? orderDate.toLocalDateTime().toString() : null);
+                    json.writeStringField("status", rs.getString("status"));
+                    json.writeNumberField("totalAmount", Money.of(rs.getBigDecimal("total_amount")).toDecimal());
+                    json.writeArrayFieldStart("items");
+                }
+
+                long itemId = rs.getLong("item_id");
+                if (!rs.wasNull()) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", itemId);
+                    json.writeNumberField("productId", rs.getLong("product_id"));
+                    json.writeStringField("productName", rs.getString("product_name"));
+                    json.writeNumberField("quantity", rs.getInt("quantity"));
+                    json.writeNumberField("unitPrice", Money.of(rs.getBigDecimal("unit_price")).toDecimal());
+                    json.writeNumberField("lineTotal", Money.of(rs.getBigDecimal("line_total")).toDecimal());
+                    json.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            if (currentOrderId < 0) {
+                return;
+            }
+            try {
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+                json.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            currentOrderId = -1;
+        }
+    }
+}
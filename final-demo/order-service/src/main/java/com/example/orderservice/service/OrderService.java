@@ -1,47 +1,85 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.catalog.CatalogProduct;
+import com.example.orderservice.catalog.ProductCatalog;
 import com.example.orderservice.client.AccountsClient;
+import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.OrderPageDto;
 import com.example.orderservice.dto.OrderRequestDto;
 import com.example.orderservice.dto.OrderResponseDto;
 import com.example.orderservice.dto.OrderResponseDto.OrderItemResponseDto;
 import com.example.orderservice.entity.Order;
 import com.example.orderservice.entity.OrderItem;
-import com.example.orderservice.entity.Product;
 import com.example.orderservice.event.OrderEvent;
 import com.example.orderservice.event.OrderEvent.OrderItemEvent;
 import com.example.orderservice.event.OrderEventPublisher;
-import com.example.orderservice.exception.InsufficientBalanceException;
 import com.example.orderservice.exception.ResourceNotFoundException;
+import com.example.orderservice.money.Money;
 import com.example.orderservice.repository.OrderRepository;
-import com.example.orderservice.repository.ProductRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
     private final OrderEventPublisher eventPublisher;
     private final AccountsClient accountsClient;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     public OrderService(OrderRepository orderRepository,
-                        ProductRepository productRepository,
+                        ProductCatalog productCatalog,
                         OrderEventPublisher eventPublisher,
-                        AccountsClient accountsClient) {
+                        AccountsClient accountsClient,
+                        PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
+        this.productCatalog = productCatalog;
         this.eventPublisher = eventPublisher;
         this.accountsClient = accountsClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
-    public List<OrderResponseDto> getAllOrders() {
-        return orderRepository.findAllByOrderByOrderDateDesc().stream()
+    @Transactional(readOnly = true)
+    public OrderPageDto getOrders(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PageRequest limit = PageRequest.of(0, pageSize);
+
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findFirstPage(limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            orders = orderRepository.findPageAfter(
+                    LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+
+        List<OrderResponseDto> page = orders.stream()
                 .map(this::toResponseDto)
                 .toList();
+        String nextCursor = orders.size() == pageSize
+                ? encodeCursor(orders.get(orders.size() - 1))
+                : null;
+        return new OrderPageDto(page, nextCursor);
     }
 
     public OrderResponseDto getOrderById(Long id) {
@@ -50,52 +88,77 @@ public class OrderService {
         return toResponseDto(order);
     }
 
-    @Transactional
-    public OrderResponseDto createOrder(OrderRequestDto dto) {
+    /**
+     * Places an order; a retry with the same Idempotency-Key gets the
+     * original order back. Two requests with a new key can both pass the
+     * lookup: the later one fails on the unique idempotency_key index when
+     * its order is flushed, before it reserves any funds, and replays the
+     * order that won. The replay reads in a new transaction, as the failed
+     * one can only roll back.
+     */
+    public OrderResponseDto createOrder(OrderRequestDto dto, String idempotencyKey) {
+        try {
+            return transactionTemplate.execute(status -> placeOrder(dto, idempotencyKey));
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return readOnlyTransactionTemplate.execute(status -> orderRepository.findByIdempotencyKey(idempotencyKey)
+                    .map(this::toResponseDto))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private OrderResponseDto placeOrder(OrderRequestDto dto, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<Order> existing = orderRepository.findByIdempotencyKey(idempotencyKey);
+            if (existing.isPresent()) {
+                return toResponseDto(existing.get());
+            }
+        }
+
         Order order = new Order();
         order.setCustomerName(dto.getCustomerName());
         order.setCustomerEmail(dto.getCustomerEmail());
         order.setStatus("CONFIRMED");
+        order.setIdempotencyKey(idempotencyKey);
 
-        double totalAmount = 0;
-        java.util.Map<Long, Product> productLookup = new java.util.HashMap<>();
+        long totalMinor = 0;
+        Set<Long> productIds = dto.getItems().stream()
+                .map(OrderItemRequestDto::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, CatalogProduct> productLookup = productCatalog.getAll(productIds);
 
         for (var itemDto : dto.getItems()) {
-            Product product = productRepository.findById(itemDto.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Product not found with id: " + itemDto.getProductId()));
-            productLookup.put(product.getId(), product);
+            CatalogProduct product = productLookup.get(itemDto.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException(
+                        "Product not found with id: " + itemDto.getProductId());
+            }
 
             OrderItem item = new OrderItem();
             item.setOrder(order);
-            item.setProductId(product.getId());
-            item.setProductName(product.getName());
+            item.setProductId(product.id());
+            item.setProductName(product.name());
             item.setQuantity(itemDto.getQuantity());
-            item.setUnitPrice(product.getPrice());
-            item.setLineTotal(product.getPrice() * itemDto.getQuantity());
+            long lineMinor = Money.multiplyMinor(product.price().minorUnits(), itemDto.getQuantity());
+            item.setUnitPrice(product.price());
+            item.setLineTotal(Money.ofMinor(lineMinor));
 
             order.getItems().add(item);
-            totalAmount += item.getLineTotal();
+            totalMinor = Money.addMinor(totalMinor, lineMinor);
         }
 
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(Money.ofMinor(totalMinor));
 
-        // Check balance with accounts-service
-        Map<String, Object> balanceCheck = accountsClient.checkBalance(
-                dto.getCustomerEmail(), totalAmount);
-        if (!Boolean.TRUE.equals(balanceCheck.get("sufficient"))) {
-            throw new InsufficientBalanceException(
-                    "Insufficient balance for " + dto.getCustomerEmail() +
-                    ". Available: $" + String.format("%.2f", ((Number) balanceCheck.get("balance")).doubleValue()) +
-                    ", Required: $" + String.format("%.2f", totalAmount));
-        }
-
-        Order saved = orderRepository.save(order);
+        // Flushed now, so a duplicate Idempotency-Key fails here rather than after the reserve
+        Order saved = orderRepository.saveAndFlush(order);
 
-        // Debit the account
-        accountsClient.debit(dto.getCustomerEmail(), totalAmount, saved.getId());
+        // Debit-if-sufficient with accounts-service (one call, idempotent per key)
+        accountsClient.reserve(dto.getCustomerEmail(), saved.getTotalAmount(), saved.getId(),
+                idempotencyKey != null ? idempotencyKey : "order-" + saved.getId());
 
-        // Publish Kafka event
+        // Queue Kafka event in the outbox (committed with the order)
         OrderEvent event = new OrderEvent();
         event.setOrderId(saved.getId());
         event.setCustomerName(saved.getCustomerName());
@@ -106,10 +169,10 @@ public class OrderService {
         event.setItemCount(saved.getItems().size());
         event.setItems(saved.getItems().stream()
                 .map(i -> {
-                    Product p = productLookup.get(i.getProductId());
+                    CatalogProduct p = productLookup.get(i.getProductId());
                     return new OrderItemEvent(
                             i.getProductId(), i.getProductName(),
-                            p != null ? p.getCategory() : "", p != null ? p.getBrand() : "",
+                            p != null ? p.category() : "", p != null ? p.brand() : "",
                             i.getQuantity(), i.getUnitPrice(), i.getLineTotal());
                 })
                 .toList());
@@ -119,6 +182,27 @@ public class OrderService {
         return toResponseDto(saved);
     }
 
+    private String encodeCursor(Order last) {
+        String position = last.getOrderDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
     private OrderResponseDto toResponseDto(Order order) {
         List<OrderItemResponseDto> items = order.getItems().stream()
                 .map(i -> new OrderItemResponseDto(
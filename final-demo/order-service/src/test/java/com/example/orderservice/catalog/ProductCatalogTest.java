@@ -0,0 +1,94 @@
+package com.example.orderservice.catalog;
+
+import com.example.orderservice.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-catalog;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.interval-ms=3600000"
+})
+class ProductCatalogTest {
+
+    @Autowired
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void resetCatalog() {
+        jdbcTemplate.update("DELETE FROM product WHERE id >= 9000");
+        productCatalog.invalidate();
+    }
+
+    @Test
+    void productListKeepsTheEntityJsonShape() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        var entities = productRepository.findAll().stream()
+                .sorted(Comparator.comparing(p -> p.getId()))
+                .toList();
+
+        assertThat(objectMapper.readTree(productCatalog.getAllAsJson()))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsBytes(entities)));
+    }
+
+    @Test
+    void productInsertedBehindTheSnapshotIsMergedIn() {
+        productCatalog.getAllAsJson();
+        double size = gauge();
+        // Plain JDBC: no entity listener, the snapshot is not dropped
+        jdbcTemplate.update("INSERT INTO product (id, name, category, brand, price, description, active) " +
+                "VALUES (9001, 'Late Arrival', 'Test', 'Test', 5.00, '', true)");
+
+        double misses = lookups("miss");
+        Map<Long, CatalogProduct> found = productCatalog.getAll(List.of(1L, 9001L));
+        assertThat(found).containsKeys(1L, 9001L);
+        assertThat(found.get(9001L).name()).isEqualTo("Late Arrival");
+        assertThat(lookups("miss") - misses).isEqualTo(1);
+        assertThat(gauge()).isEqualTo(size + 1);
+
+        double hits = lookups("hit");
+        assertThat(productCatalog.get(9001L)).isEqualTo(found.get(9001L));
+        assertThat(lookups("hit") - hits).isEqualTo(1);
+        assertThat(new String(productCatalog.getAllAsJson())).contains("Late Arrival");
+    }
+
+    @Test
+    void rebuildingTheProductListCountsAsAMiss() {
+        double hits = lookups("hit");
+        double misses = lookups("miss");
+
+        productCatalog.getAllAsJson();
+        productCatalog.getAllAsJson();
+
+        assertThat(lookups("miss") - misses).isEqualTo(1);
+        assertThat(lookups("hit") - hits).isEqualTo(1);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("product.catalog.lookups").tag("result", result).functionCounter().count();
+    }
+
+    private double gauge() {
+        return meterRegistry.get("product.catalog.size").gauge().value();
+    }
+}
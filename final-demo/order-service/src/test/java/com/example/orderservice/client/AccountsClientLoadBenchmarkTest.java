@@ -0,0 +1,170 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.config.RestClientConfig;
+import com.example.orderservice.money.Money;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 500 concurrent orders reserving against a stub accounts-service (embedded
+ * Tomcat accepting h2c with accounts-service's stream limits, 5 ms per
+ * request), once per accounts client transport: the default JDK request
+ * factory the client used before, the pooled HTTP/1.1 client and h2c.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=AccountsClientLoadBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AccountsClientLoadBenchmarkTest {
+
+    private static final int CONCURRENT_ORDERS = 500;
+    private static final int ORDERS_PER_CLIENT = 20;
+    private static final long STUB_DELAY_MS = 5;
+
+    private static final Map<String, LongAdder> protocols = new ConcurrentHashMap<>();
+    private static Tomcat stub;
+    private static String stubUrl;
+
+    @BeforeAll
+    static void startStub() throws Exception {
+        stub = new Tomcat();
+        stub.setBaseDir(Files.createTempDirectory("accounts-stub").toString());
+        stub.setPort(0);
+        Connector connector = stub.getConnector();
+        // The stream limits accounts-service sets (accounts.http2.max-concurrent-streams)
+        Http2Protocol http2 = new Http2Protocol();
+        http2.setMaxConcurrentStreams(256);
+        http2.setMaxConcurrentStreamExecution(256);
+        connector.addUpgradeProtocol(http2);
+        connector.setProperty("maxThreads", "1000");
+        connector.setProperty("maxConnections", "10000");
+        connector.setProperty("acceptCount", "1000");
+        Context context = stub.addContext("", null);
+        Tomcat.addServlet(context, "reserve", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.getInputStream().readAllBytes();
+                protocols.computeIfAbsent(request.getProtocol(), p -> new LongAdder()).increment();
+                try {
+                    Thread.sleep(STUB_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setContentType("application/json");
+                response.getOutputStream().write("{\"newBalance\":100.00}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        context.addServletMappingDecoded("/*", "reserve");
+        stub.start();
+        stubUrl = "http://localhost:" + connector.getLocalPort();
+    }
+
+    @AfterAll
+    static void stopStub() throws Exception {
+        stub.stop();
+        stub.destroy();
+    }
+
+    @Test
+    void reserveLatencyByTransport() throws Exception {
+        System.out.printf("%-22s %10s %10s %10s %12s  %s%n",
+                "transport", "p50 (ms)", "p99 (ms)", "max (ms)", "orders/s", "stub saw");
+        // Before: the builder's default JDK HttpClient, on HTTP/1.1 as accounts-service offered no h2c then
+        run("default JDK (before)", RestClient.builder().baseUrl(stubUrl)
+                .requestFactory(new JdkClientHttpRequestFactory(
+                        HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()))
+                .build());
+        run("pooled HTTP/1.1", configured(false));
+        run("h2c", configured(true));
+    }
+
+    private static RestClient configured(boolean http2) {
+        RestClientConfig config = new RestClientConfig();
+        ReflectionTestUtils.setField(config, "accountsServiceUrl", stubUrl);
+        ReflectionTestUtils.setField(config, "maxConnections", 200);
+        ReflectionTestUtils.setField(config, "maxConnectionsPerRoute", 200);
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(config, "connectionRequestTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "idleTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "connectionTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(config, "http2", http2);
+        return config.accountsRestClient();
+    }
+
+    private static void run(String transport, RestClient restClient) throws Exception {
+        AccountsClient client = new AccountsClient(restClient);
+        Money amount = Money.ofMinor(1999);
+
+        // Warm up connections and the JIT before timing
+        round(client, amount, 2);
+        protocols.clear();
+
+        long started = System.nanoTime();
+        long[] nanos = round(client, amount, ORDERS_PER_CLIENT);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Arrays.sort(nanos);
+        System.out.printf("%-22s %10.1f %10.1f %10.1f %12.0f  %s%n", transport,
+                nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6, nanos[nanos.length - 1] / 1e6,
+                nanos.length / seconds, protocols);
+    }
+
+    private static long[] round(AccountsClient client, Money amount, int ordersPerClient) throws Exception {
+        long[] nanos = new long[CONCURRENT_ORDERS * ordersPerClient];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_ORDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[CONCURRENT_ORDERS];
+            for (int t = 0; t < CONCURRENT_ORDERS; t++) {
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ordersPerClient; i++) {
+                        int order = next.getAndIncrement();
+                        long begin = System.nanoTime();
+                        Map<String, Object> result = client.reserve("bench@example.com", amount, (long) order, "bench-" + order);
+                        nanos[order] = System.nanoTime() - begin;
+                        assertThat(result).containsKey("newBalance");
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return nanos;
+    }
+}
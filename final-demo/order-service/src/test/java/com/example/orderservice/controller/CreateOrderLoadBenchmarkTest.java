@@ -0,0 +1,152 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.client.AccountsClient;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * 1,000 and 5,000 concurrent clients placing orders through
+ * POST /api/v1/orders, with accounts-service stubbed to take 20 ms per
+ * reserve and the outbox relay idle. Reports throughput and latency, and
+ * in virtual-thread mode the number of jdk.VirtualThreadPinned events
+ * (any duration) recorded during the run.
+ *
+ * Platform threads (Tomcat's pool of 200):
+ *   mvn test -Dbenchmark=true -Dtest=CreateOrderLoadBenchmarkTest
+ * Virtual threads (Java 21+):
+ *   mvn test -Dbenchmark=true -Dtest=CreateOrderLoadBenchmarkTest -Dspring.threads.virtual.enabled=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:create-order-load;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.interval-ms=3600000",
+        "server.tomcat.accept-count=10000",
+        "server.tomcat.max-connections=20000"
+})
+class CreateOrderLoadBenchmarkTest {
+
+    private static final int[] CLIENTS = {1000, 5000};
+    private static final int ORDERS_PER_CLIENT = 4;
+    private static final long ACCOUNTS_DELAY_MS = 20;
+    private static final String ORDER = "{\"customerName\":\"Bench Mark\",\"customerEmail\":\"bench@example.com\"," +
+            "\"items\":[{\"productId\":1,\"quantity\":2},{\"productId\":2,\"quantity\":1}]}";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @MockitoBean
+    private AccountsClient accountsClient;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    @BeforeEach
+    void stubAccounts() {
+        given(accountsClient.reserve(anyString(), any(), anyLong(), anyString())).willAnswer(invocation -> {
+            Thread.sleep(ACCOUNTS_DELAY_MS);
+            return Map.of("newBalance", 100);
+        });
+    }
+
+    @Test
+    void createOrderUnderLoad() throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        System.out.printf("%-9s %8s %10s %10s %10s %10s %8s%n",
+                "threads", "clients", "orders/s", "p50 (ms)", "p99 (ms)", "max (ms)", "pinned");
+        run(200, 1);   // warm-up
+        for (int clients : CLIENTS) {
+            LongAdder pinned = new LongAdder();
+            RecordingStream pinning = virtualThreads ? pinnedEvents(pinned) : null;
+            try {
+                long started = System.nanoTime();
+                long[] nanos = run(clients, ORDERS_PER_CLIENT);
+                double seconds = (System.nanoTime() - started) / 1e9;
+
+                Arrays.sort(nanos);
+                System.out.printf("%-9s %8d %10.0f %10.1f %10.1f %10.1f %8s%n", mode, clients, nanos.length / seconds,
+                        nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6,
+                        nanos[nanos.length - 1] / 1e6, virtualThreads ? pinned.sum() : "-");
+            } finally {
+                if (pinning != null) {
+                    pinning.close();
+                }
+            }
+        }
+    }
+
+    private long[] run(int clients, int ordersPerClient) throws Exception {
+        long[] nanos = new long[clients * ordersPerClient];
+        AtomicInteger next = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/orders"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(ORDER))
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ordersPerClient; i++) {
+                        long begin = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        nanos[next.getAndIncrement()] = System.nanoTime() - begin;
+                        assertThat(response.statusCode()).isEqualTo(201);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return nanos;
+    }
+
+    private static RecordingStream pinnedEvents(LongAdder pinned) {
+        RecordingStream stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+        stream.onEvent("jdk.VirtualThreadPinned", event -> pinned.increment());
+        stream.startAsync();
+        return stream;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.OrderItem;
+import com.example.orderservice.money.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Insert throughput of orders with 1, 10 and 50 items, saved through
+ * OrderRepository one order per transaction. Each size runs with JDBC
+ * batching off (session batch size 1, as before hibernate.jdbc.batch_size
+ * was set) and with the configured batch size, and reports the JDBC
+ * statements prepared per order from Hibernate's statistics.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=OrderInsertBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-insert-benchmark;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "outbox.relay.interval-ms=3600000"
+})
+class OrderInsertBenchmarkTest {
+
+    private static final int[] ITEM_COUNTS = {1, 10, 50};
+    private static final int WARMUP = 500;
+    private static final int ORDERS = 2000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void insertThroughputByItemCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        System.out.printf("%-12s %6s %12s %18s%n", "batching", "items", "orders/s", "statements/order");
+        for (int items : ITEM_COUNTS) {
+            for (boolean batched : new boolean[]{false, true}) {
+                insert(items, batched, WARMUP);
+                statistics.clear();
+
+                long started = System.nanoTime();
+                insert(items, batched, ORDERS);
+                double seconds = (System.nanoTime() - started) / 1e9;
+
+                System.out.printf("%-12s %6d %12.0f %18.2f%n", batched ? "batch 50" : "off", items,
+                        ORDERS / seconds, (double) statistics.getPrepareStatementCount() / ORDERS);
+            }
+        }
+    }
+
+    private void insert(int items, boolean batched, int orders) {
+        for (int n = 0; n < orders; n++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!batched) {
+                    entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+                }
+                orderRepository.save(order(items));
+            });
+        }
+    }
+
+    private static Order order(int items) {
+        Order order = new Order();
+        order.setCustomerName("Bench Mark");
+        order.setCustomerEmail("bench@example.com");
+        order.setStatus("CONFIRMED");
+        long totalMinor = 0;
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProductId((long) (i % 10) + 1);
+            item.setProductName("Product " + i);
+            item.setQuantity(1);
+            item.setUnitPrice(Money.ofMinor(999));
+            item.setLineTotal(Money.ofMinor(999));
+            order.getItems().add(item);
+            totalMinor += 999;
+        }
+        order.setTotalAmount(Money.ofMinor(totalMinor));
+        return order;
+    }
+}
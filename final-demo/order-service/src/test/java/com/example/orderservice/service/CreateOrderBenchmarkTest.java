@@ -0,0 +1,116 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.AccountsClient;
+import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.OrderRequestDto;
+import com.example.orderservice.entity.Product;
+import com.example.orderservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the product lookup and of the whole createOrder against cart
+ * size (1, 10 and 100 distinct products), with accounts-service stubbed
+ * out. The lookup is timed both ways: one findById per line, as
+ * createOrder used to do, and one findAllById for the cart.
+ *
+ * Run with: mvn test -Dbenchmark=true -Dtest=CreateOrderBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:create-order-benchmark;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.interval-ms=3600000"
+})
+class CreateOrderBenchmarkTest {
+
+    private static final int[] CART_SIZES = {1, 10, 100};
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private AccountsClient accountsClient;
+
+    @BeforeEach
+    void addProducts() {
+        for (long id = 1001; id <= 1100; id++) {
+            jdbcTemplate.update("MERGE INTO product (id, name, category, brand, price, description, active) " +
+                    "KEY (id) VALUES (?, ?, 'Benchmark', 'Bench', 9.99, '', true)", id, "Product " + id);
+        }
+    }
+
+    @Test
+    void latencyByCartSize() {
+        System.out.printf("%-24s %6s %12s %12s%n", "operation", "lines", "mean (us)", "p99 (us)");
+        for (int lines : CART_SIZES) {
+            List<Long> ids = LongStream.rangeClosed(1001, 1000 + lines).boxed().toList();
+
+            report("findById per line", lines, () -> transactionTemplate.executeWithoutResult(status -> {
+                for (Long id : ids) {
+                    assertThat(productRepository.findById(id)).isPresent();
+                }
+            }));
+            report("findAllById", lines, () -> transactionTemplate.executeWithoutResult(status -> {
+                List<Product> products = productRepository.findAllById(ids);
+                assertThat(products).hasSize(lines);
+            }));
+            OrderRequestDto order = order(ids);
+            report("createOrder", lines, () -> orderService.createOrder(order, null));
+        }
+    }
+
+    private static void report(String name, int lines, Runnable call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.run();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-24s %6d %12.1f %12.1f%n", name, lines,
+                Arrays.stream(nanos).average().orElse(0) / 1000.0, nanos[(int) (ITERATIONS * 0.99)] / 1000.0);
+    }
+
+    private static OrderRequestDto order(List<Long> productIds) {
+        List<OrderItemRequestDto> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            OrderItemRequestDto item = new OrderItemRequestDto();
+            item.setProductId(productId);
+            item.setQuantity(2);
+            items.add(item);
+        }
+        OrderRequestDto order = new OrderRequestDto();
+        order.setCustomerName("Bench Mark");
+        order.setCustomerEmail("bench@example.com");
+        order.setItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.AccountsClient;
+import com.example.orderservice.dto.OrderItemRequestDto;
+import com.example.orderservice.dto.OrderRequestDto;
+import com.example.orderservice.dto.OrderResponseDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+/**
+ * Requests with one new Idempotency-Key arriving together: all of them
+ * get the same order back and funds are reserved once.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-idempotency;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "outbox.relay.interval-ms=3600000"
+})
+class OrderServiceIdempotencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private AccountsClient accountsClient;
+
+    @Test
+    void concurrentRequestsWithOneKeyPlaceOneOrder() throws Exception {
+        // Hold the first order's transaction open while the others reach the insert
+        given(accountsClient.reserve(anyString(), any(), anyLong(), anyString())).willAnswer(invocation -> {
+            Thread.sleep(200);
+            return Map.of("newBalance", 100);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<OrderResponseDto> responses = new ArrayList<>();
+        try {
+            List<Future<OrderResponseDto>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrder(order(), "checkout-7");
+                }));
+            }
+            start.countDown();
+            for (Future<OrderResponseDto> future : futures) {
+                responses.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(responses).extracting(OrderResponseDto::getId).containsOnly(responses.get(0).getId());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE idempotency_key = 'checkout-7'", Integer.class)).isEqualTo(1);
+        then(accountsClient).should(times(1)).reserve(anyString(), any(), anyLong(), eq("checkout-7"));
+    }
+
+    private static OrderRequestDto order() {
+        OrderItemRequestDto item = new OrderItemRequestDto();
+        item.setProductId(1L);
+        item.setQuantity(1);
+        OrderRequestDto order = new OrderRequestDto();
+        order.setCustomerName("John Doe");
+        order.setCustomerEmail("john@example.com");
+        order.setItems(List.of(item));
+        return order;
+    }
+}